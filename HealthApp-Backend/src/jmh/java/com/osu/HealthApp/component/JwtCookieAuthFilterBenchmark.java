@@ -0,0 +1,103 @@
+package com.osu.HealthApp.component;
+
+import com.osu.HealthApp.models.Context;
+import com.osu.HealthApp.models.Role;
+import com.osu.HealthApp.models.User;
+import com.osu.HealthApp.repo.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Throughput of JwtCookieAuthFilter with and without the verified-token cache, replaying a working set of
+ * access tokens the way a few hundred signed-in SPAs would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtCookieAuthFilterBenchmark {
+
+    private static final FilterChain NO_OP = (request, response) -> { };
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    @Param({"500"})
+    public int users;
+
+    private JwtCookieAuthFilter filter;
+    private String[] tokens;
+
+    @Setup
+    public void setUp() {
+        JwtService jwt = new JwtService();
+        ReflectionTestUtils.setField(jwt, "issuer", "bench");
+        ReflectionTestUtils.setField(jwt, "accessTtlMin", 15L);
+        ReflectionTestUtils.setField(jwt, "refreshTtlDays", 1L);
+        ReflectionTestUtils.setField(jwt, "secret", "0123456789abcdef0123456789abcdef");
+        jwt.init();
+
+        filter = new JwtCookieAuthFilter(new VerifiedTokenCache(jwt, new SimpleMeterRegistry(), cached, 10_000),
+                new AccessTokenEpochs(mock(UserRepository.class)));
+        ReflectionTestUtils.setField(filter, "accessName", "AUTH");
+
+        tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            User u = new User();
+            u.setId((long) i);
+            u.setEmail("u" + i + "@example.com");
+            u.getRoles().add(Role.PATIENT);
+            tokens[i] = jwt.generateAccessToken(u, Context.PATIENT);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+        MockHttpServletRequest[] requests;
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(JwtCookieAuthFilterBenchmark bench) {
+            requests = new MockHttpServletRequest[bench.tokens.length];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = new MockHttpServletRequest("GET", "/api/me");
+                requests[i].setCookies(new Cookie("AUTH", bench.tokens[i]));
+            }
+        }
+    }
+
+    @Benchmark
+    public Authentication authenticate(Requests r) throws Exception {
+        MockHttpServletRequest request = r.requests[r.next++ % r.requests.length];
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, r.response, NO_OP);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
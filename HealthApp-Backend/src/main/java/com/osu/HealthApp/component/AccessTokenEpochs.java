@@ -0,0 +1,51 @@
+package com.osu.HealthApp.component;
+
+import com.osu.HealthApp.repo.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of each user's auth epoch (User.authEpoch). Access tokens carry the epoch they were issued
+ * under; bumping it (disable, role change) makes JwtCookieAuthFilter reject older tokens without a DB read.
+ * Only users whose epoch was ever bumped have an entry.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccessTokenEpochs {
+
+    private final UserRepository users;
+    private final Map<Long, Long> epochs = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        users.findBumpedAuthEpochs().forEach(e -> epochs.merge(e.getId(), e.getAuthEpoch(), Math::max));
+    }
+
+    /** True if a token issued under {@code tokenEpoch} predates the user's latest revocation. */
+    public boolean isRevoked(Long userId, long tokenEpoch) {
+        Long current = epochs.get(userId);
+        return current != null && tokenEpoch < current;
+    }
+
+    /** Publish a bumped epoch once the surrounding transaction commits (immediately if there is none). */
+    public void publish(Long userId, long epoch) {
+        Runnable update = () -> epochs.merge(userId, epoch, Math::max);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
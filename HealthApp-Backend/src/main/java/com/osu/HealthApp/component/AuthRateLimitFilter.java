@@ -0,0 +1,184 @@
+package com.osu.HealthApp.component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket limits in front of AuthController: every auth call is charged to the client IP, and
+ * login/register calls are also charged to the normalized email in the body, so a credential-stuffing
+ * burst can neither flood BCrypt from one address nor hammer one account from many.
+ * Over the limit -> 429 with Retry-After; the controller never runs. Bodies on the email paths are read
+ * whatever Content-Length says (chunked ones included); anything over 16 KiB is refused with 413 rather than
+ * let through uncharged.
+ */
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of(
+            "/api/auth/loginpatient", "/api/auth/loginstaff", "/api/auth/register", "/api/auth/refresh");
+    private static final Set<String> EMAIL_PATHS = Set.of(
+            "/api/auth/loginpatient", "/api/auth/loginstaff", "/api/auth/register");
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final TokenBucketLimiter byIp;
+    private final TokenBucketLimiter byEmail;
+    private final Counter ipAllowed;
+    private final Counter ipLimited;
+    private final Counter emailAllowed;
+    private final Counter emailLimited;
+
+    public AuthRateLimitFilter(ObjectMapper objectMapper, MeterRegistry meters,
+                               @Value("${auth.rate-limit.ip.per-minute:60}") int ipPerMinute,
+                               @Value("${auth.rate-limit.ip.burst:20}") int ipBurst,
+                               @Value("${auth.rate-limit.email.per-minute:10}") int emailPerMinute,
+                               @Value("${auth.rate-limit.email.burst:5}") int emailBurst,
+                               @Value("${auth.rate-limit.max-keys:100000}") int maxKeys) {
+        this.objectMapper = objectMapper;
+        this.byIp = new TokenBucketLimiter(ipPerMinute, ipBurst, maxKeys);
+        this.byEmail = new TokenBucketLimiter(emailPerMinute, emailBurst, maxKeys);
+        this.ipAllowed = meters.counter("auth.rate_limit.requests", "key", "ip", "outcome", "allowed");
+        this.ipLimited = meters.counter("auth.rate_limit.requests", "key", "ip", "outcome", "limited");
+        this.emailAllowed = meters.counter("auth.rate_limit.requests", "key", "email", "outcome", "allowed");
+        this.emailLimited = meters.counter("auth.rate_limit.requests", "key", "email", "outcome", "limited");
+        Gauge.builder("auth.rate_limit.buckets", byIp, TokenBucketLimiter::size).tag("key", "ip").register(meters);
+        Gauge.builder("auth.rate_limit.buckets", byEmail, TokenBucketLimiter::size).tag("key", "email").register(meters);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        return !"POST".equals(req.getMethod()) || !LIMITED_PATHS.contains(req.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+
+        long wait = byIp.tryAcquire(req.getRemoteAddr(), now);
+        (wait > 0 ? ipLimited : ipAllowed).increment();
+        if (wait > 0) {
+            reject(res, wait);
+            return;
+        }
+
+        if (EMAIL_PATHS.contains(req.getRequestURI())) {
+            CachedBodyRequest cached = req.getContentLengthLong() > MAX_BODY_BYTES ? null : CachedBodyRequest.of(req);
+            if (cached == null) {
+                res.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+                return;
+            }
+            req = cached;
+            String email = emailOf(cached.body);
+            if (email != null) {
+                wait = byEmail.tryAcquire(email, now);
+                (wait > 0 ? emailLimited : emailAllowed).increment();
+                if (wait > 0) {
+                    reject(res, wait);
+                    return;
+                }
+            }
+        }
+        chain.doFilter(req, res);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.rate-limit.evict-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        byIp.evictIdle(now);
+        byEmail.evictIdle(now);
+    }
+
+    private String emailOf(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            return null; // let the controller report the bad body
+        }
+    }
+
+    private static void reject(HttpServletResponse res, long waitNanos) {
+        res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1)));
+    }
+
+    /** Request whose (small) JSON body was read up front so both this filter and the controller can read it. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest req, byte[] body) {
+            super(req);
+            this.body = body;
+        }
+
+        /** Reads at most one byte past the limit, so a missing or lying Content-Length can't skip the check; null if too big. */
+        static CachedBodyRequest of(HttpServletRequest req) throws IOException {
+            byte[] body = req.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+            return body.length > MAX_BODY_BYTES ? null : new CachedBodyRequest(req, body);
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override public int read() { return in.read(); }
+                @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+                @Override public boolean isFinished() { return in.available() == 0; }
+                @Override public boolean isReady() { return true; }
+                /** The whole body is already in memory, so it's all available now and the read completes right here. */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
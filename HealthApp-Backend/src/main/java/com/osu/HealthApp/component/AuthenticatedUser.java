@@ -0,0 +1,76 @@
+package com.osu.HealthApp.component;
+
+import com.osu.HealthApp.models.Context;
+import com.osu.HealthApp.models.Role;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Principal set by JwtCookieAuthFilter from access token claims. Services read the caller's id from here
+ * instead of looking the user up by email.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String email;
+    // concrete serializable types; exposed read-only below
+    private final EnumSet<Role> roles;
+    private final Context context;
+    private final ArrayList<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String email, Set<Role> roles, Context context,
+                             Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.email = email;
+        this.roles = roles.isEmpty() ? EnumSet.noneOf(Role.class) : EnumSet.copyOf(roles);
+        this.context = context;
+        this.authorities = new ArrayList<>(authorities);
+    }
+
+    public Set<Role> getRoles() {
+        return Collections.unmodifiableSet(roles);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.unmodifiableList(authorities);
+    }
+
+    /** The caller's principal, or 401 if the request isn't authenticated by an access token. */
+    public static AuthenticatedUser of(Authentication auth) {
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+    }
+
+    public static AuthenticatedUser current() {
+        return of(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return "";
+    }
+}
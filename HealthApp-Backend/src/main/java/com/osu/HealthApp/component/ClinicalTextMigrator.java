@@ -0,0 +1,128 @@
+package com.osu.HealthApp.component;
+
+import com.osu.HealthApp.models.CompressedTextConverter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nurse notes and results used to live on the appointment row. ddl-auto won't move data, so on startup copy any
+ * legacy text into appointment_clinical_text (compressed) and record the appointment in
+ * appointment_clinical_text_migrated. Recorded rows are never looked at again: from then on their text is edited in
+ * the new table only, so it is expected to drift from the frozen legacy columns. An unrecorded appointment that
+ * already has clinical text is recorded if the texts match (copied before the marker existed) and logged as a
+ * conflict otherwise. The old columns are only dropped when clinical-text.migration.drop-legacy-columns is set
+ * (once no node runs the old code and no conflicts are left), so a rolling deploy or a rollback still finds them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClinicalTextMigrator implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+
+    @Value("${clinical-text.migration.drop-legacy-columns:false}")
+    private boolean dropLegacyColumns;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Integer legacyColumns = jdbc.queryForObject("select count(*) from information_schema.columns " +
+                    "where table_name = 'appointment' and column_name in ('nurse_notes', 'appointment_results')", Integer.class);
+            if (legacyColumns == null || legacyColumns < 2) {
+                return;
+            }
+            jdbc.execute("create table if not exists appointment_clinical_text_migrated (appointment_id bigint primary key)");
+            transactions.executeWithoutResult(status -> migrate());
+        } catch (DataAccessException e) {
+            log.warn("Could not migrate legacy appointment clinical text: {}", e.getMessage());
+        }
+    }
+
+    private record LegacyText(long id, String nurseNotes, String results) {}
+
+    private void migrate() {
+        CompressedTextConverter converter = new CompressedTextConverter();
+        long lastId = 0;
+        int moved = 0;
+        int alreadyCopied = 0;
+        List<Long> conflicting = new ArrayList<>();
+        while (true) {
+            List<LegacyText> rows = jdbc.query("select a.id, a.nurse_notes, a.appointment_results from appointment a " +
+                            "where a.id > ? and (a.nurse_notes is not null or a.appointment_results is not null) " +
+                            "and not exists (select 1 from appointment_clinical_text_migrated m where m.appointment_id = a.id) " +
+                            "order by a.id limit ?",
+                    (rs, i) -> new LegacyText(rs.getLong(1), rs.getString(2), rs.getString(3)),
+                    lastId, BATCH_SIZE);
+            if (rows.isEmpty()) break;
+            int[] inserted = jdbc.batchUpdate("insert into appointment_clinical_text (appointment_id, nurse_notes, appointment_results) " +
+                    "values (?, ?, ?) on conflict do nothing", rows.stream()
+                    .map(r -> new Object[]{r.id(), converter.convertToDatabaseColumn(r.nurseNotes()), converter.convertToDatabaseColumn(r.results())})
+                    .toList());
+
+            Map<Long, LegacyText> skipped = new HashMap<>();
+            List<Long> migrated = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (inserted[i] == 0) {
+                    skipped.put(rows.get(i).id(), rows.get(i));
+                } else {
+                    migrated.add(rows.get(i).id());
+                    moved++;
+                }
+            }
+            // a skipped row is fine if it holds what we'd have copied (a run from before the marker table);
+            // otherwise the texts diverged and the row stays unrecorded
+            if (!skipped.isEmpty()) {
+                String in = String.join(",", Collections.nCopies(skipped.size(), "?"));
+                for (LegacyText current : jdbc.query("select appointment_id, nurse_notes, appointment_results " +
+                                "from appointment_clinical_text where appointment_id in (" + in + ")",
+                        (rs, i) -> new LegacyText(rs.getLong(1), converter.convertToEntityAttribute(rs.getBytes(2)),
+                                converter.convertToEntityAttribute(rs.getBytes(3))),
+                        skipped.keySet().toArray())) {
+                    if (current.equals(skipped.get(current.id()))) {
+                        migrated.add(current.id());
+                        alreadyCopied++;
+                    } else {
+                        conflicting.add(current.id());
+                    }
+                }
+            }
+            jdbc.batchUpdate("insert into appointment_clinical_text_migrated (appointment_id) values (?) on conflict do nothing",
+                    migrated.stream().map(id -> new Object[]{id}).toList());
+            lastId = rows.get(rows.size() - 1).id();
+        }
+        log.info("Copied legacy clinical text for {} appointments to appointment_clinical_text ({} already copied)", moved, alreadyCopied);
+        if (!conflicting.isEmpty()) {
+            Collections.sort(conflicting);
+            log.warn("Skipped legacy clinical text for {} appointments whose appointment_clinical_text differs (first ids: {})",
+                    conflicting.size(), conflicting.subList(0, Math.min(20, conflicting.size())));
+        }
+
+        if (!dropLegacyColumns) {
+            log.info("Keeping legacy columns appointment.nurse_notes/appointment_results; " +
+                    "set clinical-text.migration.drop-legacy-columns=true to drop them");
+        } else if (!conflicting.isEmpty()) {
+            log.warn("Not dropping legacy clinical text columns while {} appointments hold text that wasn't copied", conflicting.size());
+        } else {
+            jdbc.execute("alter table appointment drop column nurse_notes");
+            jdbc.execute("alter table appointment drop column appointment_results");
+            jdbc.execute("drop table appointment_clinical_text_migrated");
+            log.info("Dropped legacy columns appointment.nurse_notes and appointment.appointment_results");
+        }
+    }
+}
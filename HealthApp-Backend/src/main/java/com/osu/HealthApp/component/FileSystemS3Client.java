@@ -0,0 +1,233 @@
+package com.osu.HealthApp.component;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Utilities;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Offline stand-in for S3, storing objects as files under {@code root/bucket/key}. Covers what the app uses:
+ * put/get/head/delete and multipart uploads. Enabled by setting aws.s3.local-dir (see AwsS3Config).
+ * Content types are kept in a {@code .content-type} sidecar next to each object.
+ */
+public class FileSystemS3Client implements S3Client {
+
+    private static final String CONTENT_TYPE_SUFFIX = ".content-type";
+    private static final String MULTIPART_DIR = ".multipart";
+
+    private final Path root;
+    private final Region region;
+
+    public FileSystemS3Client(Path root, Region region) {
+        this.root = root;
+        this.region = region;
+    }
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+        Path target = objectPath(request.bucket(), request.key());
+        try (InputStream in = body.contentStreamProvider().newStream()) {
+            write(target, in);
+            writeContentType(target, request.contentType());
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to write " + target, e);
+        }
+        return PutObjectResponse.builder().eTag(etag(target)).build();
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest request) {
+        Path path = existing(request.bucket(), request.key());
+        try {
+            return HeadObjectResponse.builder()
+                    .contentLength(Files.size(path))
+                    .contentType(readContentType(path))
+                    .lastModified(Files.getLastModifiedTime(path).toInstant())
+                    .eTag(etag(path))
+                    .build();
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to stat " + path, e);
+        }
+    }
+
+    @Override
+    public <ReturnT> ReturnT getObject(GetObjectRequest request,
+                                       ResponseTransformer<GetObjectResponse, ReturnT> transformer) {
+        Path path = existing(request.bucket(), request.key());
+        try {
+            GetObjectResponse response = GetObjectResponse.builder()
+                    .contentLength(Files.size(path))
+                    .contentType(readContentType(path))
+                    .build();
+            return transformer.transform(response, AbortableInputStream.create(Files.newInputStream(path)));
+        } catch (Exception e) {
+            throw SdkClientException.create("Failed to read " + path, e);
+        }
+    }
+
+    @Override
+    public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+        return getObject(request, ResponseTransformer.toInputStream());
+    }
+
+    @Override
+    public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+        Path path = objectPath(request.bucket(), request.key());
+        try {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(contentTypePath(path));
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to delete " + path, e);
+        }
+        return DeleteObjectResponse.builder().build();
+    }
+
+    @Override
+    public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Path dir = Files.createDirectories(multipartDir(request.bucket(), uploadId));
+            Files.writeString(dir.resolve("key"), request.key());
+            if (request.contentType() != null) {
+                Files.writeString(dir.resolve("content-type"), request.contentType());
+            }
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to start multipart upload", e);
+        }
+        return CreateMultipartUploadResponse.builder()
+                .bucket(request.bucket()).key(request.key()).uploadId(uploadId).build();
+    }
+
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+        Path part = multipartDir(request.bucket(), request.uploadId()).resolve("part-" + request.partNumber());
+        try (InputStream in = body.contentStreamProvider().newStream()) {
+            write(part, in);
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to write part " + request.partNumber(), e);
+        }
+        return UploadPartResponse.builder().eTag(etag(part)).build();
+    }
+
+    @Override
+    public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        Path dir = multipartDir(request.bucket(), request.uploadId());
+        Path target = objectPath(request.bucket(), request.key());
+        try {
+            Files.createDirectories(target.getParent());
+            try (OutputStream out = Files.newOutputStream(target)) {
+                for (CompletedPart part : request.multipartUpload().parts()) {
+                    Files.copy(dir.resolve("part-" + part.partNumber()), out);
+                }
+            }
+            Path contentType = dir.resolve("content-type");
+            writeContentType(target, Files.exists(contentType) ? Files.readString(contentType) : null);
+            deleteTree(dir);
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to complete multipart upload", e);
+        }
+        return CompleteMultipartUploadResponse.builder()
+                .bucket(request.bucket()).key(request.key()).eTag(etag(target)).build();
+    }
+
+    @Override
+    public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+        try {
+            deleteTree(multipartDir(request.bucket(), request.uploadId()));
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to abort multipart upload", e);
+        }
+        return AbortMultipartUploadResponse.builder().build();
+    }
+
+    @Override
+    public S3Utilities utilities() {
+        return S3Utilities.builder().region(region).build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private Path objectPath(String bucket, String key) {
+        Path bucketDir = root.resolve(bucket).normalize();
+        Path path = bucketDir.resolve(key).normalize();
+        if (!path.startsWith(bucketDir) || key.startsWith(MULTIPART_DIR)) {
+            throw SdkClientException.create("Invalid key: " + key);
+        }
+        return path;
+    }
+
+    private Path existing(String bucket, String key) {
+        Path path = objectPath(bucket, key);
+        if (!Files.isRegularFile(path)) {
+            throw NoSuchKeyException.builder().message("No such key: " + key).build();
+        }
+        return path;
+    }
+
+    private Path multipartDir(String bucket, String uploadId) {
+        return root.resolve(bucket).resolve(MULTIPART_DIR).resolve(uploadId);
+    }
+
+    private static void write(Path target, InputStream in) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        Files.copy(in, tmp);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path contentTypePath(Path object) {
+        return object.resolveSibling(object.getFileName() + CONTENT_TYPE_SUFFIX);
+    }
+
+    private static void writeContentType(Path object, String contentType) throws IOException {
+        if (contentType != null) {
+            Files.writeString(contentTypePath(object), contentType, StandardCharsets.UTF_8);
+        } else {
+            Files.deleteIfExists(contentTypePath(object));
+        }
+    }
+
+    private static String readContentType(Path object) throws IOException {
+        Path sidecar = contentTypePath(object);
+        return Files.exists(sidecar) ? Files.readString(sidecar, StandardCharsets.UTF_8) : null;
+    }
+
+    private static String etag(Path path) {
+        try {
+            return "\"" + Long.toHexString(Files.size(path)) + "-" + Long.toHexString(Files.getLastModifiedTime(path).toMillis()) + "\"";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+}
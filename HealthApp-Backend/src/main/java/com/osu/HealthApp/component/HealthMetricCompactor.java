@@ -0,0 +1,70 @@
+package com.osu.HealthApp.component;
+
+import com.osu.HealthApp.repo.HealthMetricRepository;
+import com.osu.HealthApp.service.HealthMetricColdStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Rolls health readings older than {@code metrics.cold.after-days} into the compressed cold tier, one
+ * user-month per short transaction. Only whole months are rolled, so a month is compacted once its last
+ * day is past the cutoff; readings that arrive later for a rolled month are merged in on the next run.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HealthMetricCompactor {
+
+    private final HealthMetricRepository hot;
+    private final HealthMetricColdStore coldStore;
+
+    @Value("${metrics.cold.after-days:90}")
+    private long afterDays;
+
+    @Value("${metrics.cold.user-batch-size:500}")
+    private int userBatchSize;
+
+    @Scheduled(cron = "${metrics.cold.compact-cron:0 30 3 * * *}")
+    public void compact() {
+        Instant cutoff = HealthMetricColdStore.monthStart(Instant.now().minus(Duration.ofDays(afterDays)));
+        long users = 0;
+        long moved = 0;
+        Long afterId = 0L;
+        List<Long> userIds;
+        do {
+            userIds = hot.findUserIdsWithReadingsBefore(cutoff, afterId, Limit.of(userBatchSize));
+            for (Long userId : userIds) {
+                moved += compactUser(userId, cutoff);
+                users++;
+                afterId = userId;
+            }
+        } while (userIds.size() == userBatchSize);
+        if (moved > 0) {
+            log.info("Moved {} health readings of {} users into the cold tier", moved, users);
+        }
+    }
+
+    private long compactUser(Long userId, Instant cutoff) {
+        long moved = 0;
+        Instant first = hot.findFirstRecordedAt(userId, Instant.EPOCH, cutoff);
+        while (first != null) {
+            Instant month = HealthMetricColdStore.monthStart(first);
+            try {
+                moved += coldStore.compactMonth(userId, month);
+            } catch (RuntimeException e) {
+                log.warn("Could not compact health readings of user {} for {}: {}", userId, month, e.getMessage());
+            }
+            Instant next = HealthMetricColdStore.nextMonth(month);
+            first = hot.findFirstRecordedAt(userId, next, cutoff);
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,50 @@
+package com.osu.HealthApp.component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Tables that moved from IDENTITY to sequence ids (so Hibernate can batch inserts) keep their old rows.
+ * On startup, push each sequence past the table's current max id so new ids never collide with them.
+ * Hibernate hands out the {@link #ALLOCATION_SIZE} ids ending at each sequence value, so the whole block has to
+ * clear the max. Plain nextval / alter sequence keeps this portable (Postgres in production, H2 in tests).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdSequenceAligner implements ApplicationRunner {
+
+    /** sequence -> table */
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "appointment_seq", "appointment",
+            "health_metric_seq", "health_metrics"
+    );
+
+    /** allocationSize of every generator above */
+    static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbc;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                Long max = jdbc.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+                Long next = jdbc.queryForObject("select nextval('" + sequence + "')", Long.class);
+                if (next - ALLOCATION_SIZE < max) {
+                    jdbc.execute("alter sequence " + sequence + " restart with " + (max + ALLOCATION_SIZE));
+                    log.info("Moved sequence {} past {}.id {}", sequence, table, max);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not align sequence {} with table {}: {}", sequence, table, e.getMessage());
+            }
+        });
+    }
+}
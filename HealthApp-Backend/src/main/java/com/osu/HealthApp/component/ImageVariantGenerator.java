@@ -0,0 +1,107 @@
+package com.osu.HealthApp.component;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Downscaled, square (center-cropped) JPEG variants of an uploaded photo for avatars.
+ * The source is decoded with subsampling at roughly twice the largest variant, so a 12 MP phone photo
+ * never has to be fully decoded into the heap.
+ */
+@Component
+public class ImageVariantGenerator {
+
+    @Value("${media.variants.max-pixels:50000000}")
+    private long maxPixels;
+
+    @Value("${media.variants.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    /** size -> JPEG bytes; empty if the file isn't an image ImageIO can decode (e.g. HEIC). */
+    public Map<Integer, byte[]> generate(Path original, int[] sizes) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return Map.of();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("Image is " + width + "x" + height + ", over the " + maxPixels + " pixel limit");
+                }
+
+                int side = Math.min(width, height);
+                int largest = Arrays.stream(sizes).max().orElse(side);
+                int step = Math.max(1, side / (largest * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(new Rectangle((width - side) / 2, (height - side) / 2, side, side));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage square = reader.read(0, param);
+
+                Map<Integer, byte[]> variants = new LinkedHashMap<>();
+                for (int size : sizes) {
+                    variants.put(size, toJpeg(scale(square, Math.min(size, square.getWidth()))));
+                }
+                return variants;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Halve repeatedly, then one bilinear step to the target; avoids the aliasing of a single big downscale. */
+    private static BufferedImage scale(BufferedImage source, int target) {
+        BufferedImage current = source;
+        int size = source.getWidth();
+        do {
+            size = Math.max(target, size / 2);
+            current = draw(current, size);
+        } while (size > target);
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int size) {
+        BufferedImage out = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setColor(Color.WHITE); // JPEG has no alpha; flatten transparent PNGs onto white
+            g.fillRect(0, 0, size, size);
+            g.drawImage(source, 0, 0, size, size, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private byte[] toJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -1,6 +1,8 @@
 package com.osu.HealthApp.component;
 
-import com.osu.HealthApp.service.CustomUserDetailsService;
+import com.osu.HealthApp.models.Context;
+import com.osu.HealthApp.models.Role;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -12,13 +14,15 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -38,8 +42,8 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 public class JwtCookieAuthFilter extends OncePerRequestFilter {
 
-    private final JwtService jwt;
-    private final CustomUserDetailsService uds;
+    private final VerifiedTokenCache verifiedTokens;
+    private final AccessTokenEpochs epochs;
 
     @Value("${cookie.access-name:AUTH}")
     private String accessName;
@@ -54,25 +58,12 @@ public class JwtCookieAuthFilter extends OncePerRequestFilter {
 
             if (token != null && !token.isBlank()) {
                 try {
-                    var jws = jwt.parse(token); // throws if invalid/expired
-                    String email = jws.getPayload().getSubject();
-
-                    // Load authorities from user
-                    UserDetails ud = uds.loadUserByUsername(email);
-
-                    Object ctx = jws.getPayload().get("context");
-                    Stream<GrantedAuthority> ctxAuthStream =
-                            (ctx instanceof String s && !s.isBlank())
-                                    ? Stream.of(new SimpleGrantedAuthority("CONTEXT_" + s))
-                                    : Stream.empty();
-
-                    Collection<? extends GrantedAuthority> authorities =
-                            Stream.concat(ud.getAuthorities().stream(), ctxAuthStream).toList();
-
-                    var authentication = new UsernamePasswordAuthenticationToken(ud, null, authorities);
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
-
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    Claims claims = verifiedTokens.verify(token); // throws if invalid/expired
+                    var authentication = authenticationFrom(claims);
+                    if (authentication != null) {
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                    }
                 } catch (Exception ex) {
                     // Invalid or expired token => clear context and continue as anonymous
                     SecurityContextHolder.clearContext();
@@ -82,6 +73,35 @@ public class JwtCookieAuthFilter extends OncePerRequestFilter {
         chain.doFilter(req, res);
     }
 
+    /**
+     * Builds the Authentication purely from verified claims (no user lookup). Returns null, i.e. anonymous,
+     * for tokens without the id/roles claims, disabled accounts, and tokens revoked by an auth epoch bump.
+     */
+    private UsernamePasswordAuthenticationToken authenticationFrom(Claims claims) {
+        if (!(claims.get(JwtService.CLAIM_USER_ID) instanceof Number uid)
+                || !(claims.get(JwtService.CLAIM_ROLES) instanceof List<?> roles)) {
+            return null; // issued before roles were embedded; the client refreshes to get a new one
+        }
+        long epoch = claims.get(JwtService.CLAIM_EPOCH) instanceof Number n ? n.longValue() : 0;
+        if (!Boolean.TRUE.equals(claims.get(JwtService.CLAIM_ENABLED)) || epochs.isRevoked(uid.longValue(), epoch)) {
+            return null;
+        }
+
+        Set<Role> roleSet = EnumSet.noneOf(Role.class);
+        roles.forEach(r -> roleSet.add(Role.valueOf(r.toString())));
+        Context context = claims.get("context") instanceof String s && !s.isBlank() ? Context.valueOf(s) : null;
+
+        Stream<GrantedAuthority> ctxAuthStream = context != null
+                ? Stream.of(new SimpleGrantedAuthority("CONTEXT_" + context.name()))
+                : Stream.empty();
+        Stream<GrantedAuthority> roleAuthStream = roleSet.stream()
+                .map(r -> new SimpleGrantedAuthority("ROLE_" + r.name()));
+
+        Collection<? extends GrantedAuthority> authorities = Stream.concat(roleAuthStream, ctxAuthStream).toList();
+        var principal = new AuthenticatedUser(uid.longValue(), claims.getSubject(), roleSet, context, authorities);
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
+
     private String readTokenFromCookie(HttpServletRequest req) {
         Cookie[] cookies = req.getCookies();
         if (cookies == null) return null;
@@ -1,6 +1,7 @@
 package com.osu.HealthApp.component;
 
 import com.osu.HealthApp.models.Context;
+import com.osu.HealthApp.models.Role;
 import com.osu.HealthApp.models.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
@@ -22,6 +23,11 @@ import java.util.Date;
 @Component
 public class JwtService {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_ENABLED = "enabled";
+    public static final String CLAIM_EPOCH = "epoch";
+
     @Value("${jwt.issuer}")             private String issuer;
     @Value("${jwt.access-ttl-minutes}") private long accessTtlMin;
     @Value("${jwt.refresh-ttl-days}")   private long refreshTtlDays;
@@ -37,7 +43,10 @@ public class JwtService {
         this.hmacKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
 
-    /** Access token: subject=email, roles claim, short TTL. */
+    /**
+     * Access token: subject=email, short TTL. Carries everything JwtCookieAuthFilter needs to authenticate
+     * without loading the user: id, roles, enabled flag and the auth epoch it was issued under.
+     */
     public String generateAccessToken(User u, Context context) {
         Instant now = Instant.now();
         return Jwts.builder()
@@ -46,6 +55,10 @@ public class JwtService {
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plus(Duration.ofMinutes(accessTtlMin))))
                 .claim("context", context.name())
+                .claim(CLAIM_USER_ID, u.getId())
+                .claim(CLAIM_ROLES, u.getRoles().stream().map(Role::name).sorted().toList())
+                .claim(CLAIM_ENABLED, u.isEnabled())
+                .claim(CLAIM_EPOCH, u.getAuthEpoch())
                 .signWith(hmacKey)
                 .compact();
     }
@@ -0,0 +1,98 @@
+package com.osu.HealthApp.component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt work on the bounded passwordHashExecutor instead of the request thread, so a login storm
+ * can only use that pool's threads and ordinary API calls keep their CPU. When the queue is full (or a
+ * hash waits too long) callers get 503 with Retry-After instead of piling up.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWait;
+
+    public PasswordHasher(PasswordEncoder encoder,
+                          @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor,
+                          MeterRegistry meters,
+                          @Value("${auth.hash.timeout-ms:10000}") long timeoutMillis,
+                          @Value("${auth.hash.retry-after-seconds:2}") long retryAfterSeconds) {
+        this.encoder = encoder;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.encodeTimer = meters.timer("auth.password.hash", "op", "encode");
+        this.matchesTimer = meters.timer("auth.password.hash", "op", "matches");
+        this.queueWait = meters.timer("auth.password.queue.wait");
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .register(meters);
+    }
+
+    public String encode(String raw) {
+        return run(encodeTimer, () -> encoder.encode(raw));
+    }
+
+    public boolean matches(String raw, String encoded) {
+        return run(matchesTimer, () -> encoder.matches(raw, encoded));
+    }
+
+    /** True if the hash was made with a lower cost than the encoder now uses; cheap, runs inline. */
+    public boolean needsUpgrade(String encoded) {
+        return encoder.upgradeEncoding(encoded);
+    }
+
+    private <T> T run(Timer work, Supplier<T> hash) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return work.record(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw busy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private ResponseStatusException busy() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sign-ins right now, please retry") {
+            @Override
+            public HttpHeaders getHeaders() {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                return headers;
+            }
+        };
+    }
+}
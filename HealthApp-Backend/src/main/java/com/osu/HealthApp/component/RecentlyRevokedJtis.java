@@ -0,0 +1,96 @@
+package com.osu.HealthApp.component;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * The most recently rotated-out refresh token ids in a bounded FIFO, stored as two longs per UUID in a ring with
+ * an open-addressing index of ring slots beside it (under 32 bytes per id, no per-entry objects).
+ * A refresh that replays one of them is rejected without reading refresh_tokens; older ids fall back to the DB check.
+ */
+@Component
+public class RecentlyRevokedJtis {
+
+    private final long[] msb;
+    private final long[] lsb;
+    private final int[] index; // ring slot + 1 per bucket, 0 for empty; linear probing
+    private final int mask;
+    private int next;          // ring slot the next id goes into; the oldest id once the ring is full
+    private int size;
+
+    public RecentlyRevokedJtis(@Value("${auth.refresh.revoked-cache-size:100000}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("auth.refresh.revoked-cache-size must be positive");
+        }
+        this.msb = new long[capacity];
+        this.lsb = new long[capacity];
+        // at most half full, so probe runs stay short
+        this.index = new int[Integer.highestOneBit(capacity) << 2];
+        this.mask = index.length - 1;
+    }
+
+    public synchronized void add(String jti) {
+        UUID id = parse(jti);
+        if (id == null) return;
+        long hi = id.getMostSignificantBits();
+        long lo = id.getLeastSignificantBits();
+        if (find(hi, lo) >= 0) return;
+        if (size == msb.length) {
+            remove(find(msb[next], lsb[next]));
+        } else {
+            size++;
+        }
+        msb[next] = hi;
+        lsb[next] = lo;
+        int b = bucket(hi, lo);
+        while (index[b] != 0) {
+            b = (b + 1) & mask;
+        }
+        index[b] = next + 1;
+        next = (next + 1) % msb.length;
+    }
+
+    public synchronized boolean contains(String jti) {
+        UUID id = parse(jti);
+        return id != null && find(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0;
+    }
+
+    /** The bucket holding this id, or -1. */
+    private int find(long hi, long lo) {
+        for (int b = bucket(hi, lo); index[b] != 0; b = (b + 1) & mask) {
+            int slot = index[b] - 1;
+            if (msb[slot] == hi && lsb[slot] == lo) return b;
+        }
+        return -1;
+    }
+
+    /** Empties a bucket and shifts later entries of the probe run back so lookups still reach them. */
+    private void remove(int b) {
+        index[b] = 0;
+        for (int j = (b + 1) & mask; index[j] != 0; j = (j + 1) & mask) {
+            int slot = index[j] - 1;
+            int home = bucket(msb[slot], lsb[slot]);
+            // j's entry may move into the hole only if its home bucket isn't between the hole and j
+            if (((j - home) & mask) >= ((j - b) & mask)) {
+                index[b] = index[j];
+                index[j] = 0;
+                b = j;
+            }
+        }
+    }
+
+    private int bucket(long hi, long lo) {
+        long h = (hi ^ lo) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    private static UUID parse(String jti) {
+        try {
+            return jti == null ? null : UUID.fromString(jti);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.osu.HealthApp.component;
+
+import com.osu.HealthApp.repo.RefreshTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Deletes expired and revoked refresh tokens. Works in small chunks, each its own short transaction,
+ * so logins and refreshes never wait behind one long delete. After each run it refreshes the
+ * auth.refresh.tokens.live gauge (live tokens across all users; per user, see the admin endpoint).
+ */
+@Slf4j
+@Component
+public class RefreshTokenPurger {
+
+    private final RefreshTokenRepository rts;
+    private final AtomicLong live = new AtomicLong();
+
+    @Value("${auth.refresh.purge-batch-size:1000}")
+    private int batchSize;
+
+    public RefreshTokenPurger(RefreshTokenRepository rts, MeterRegistry meters) {
+        this.rts = rts;
+        Gauge.builder("auth.refresh.tokens.live", live, AtomicLong::get).register(meters);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh.purge-interval-ms:3600000}", initialDelayString = "${auth.refresh.purge-initial-delay-ms:60000}")
+    public void purge() {
+        Instant now = Instant.now();
+        int expired = purgeAll(() -> rts.findExpiredJtis(now, Limit.of(batchSize)));
+        int revoked = purgeAll(() -> rts.findRevokedJtis(Limit.of(batchSize)));
+        if (expired + revoked > 0) {
+            log.info("Purged {} expired and {} revoked refresh tokens", expired, revoked);
+        }
+        live.set(rts.countAllLive(now));
+    }
+
+    private int purgeAll(Supplier<List<String>> nextBatch) {
+        int purged = 0;
+        List<String> jtis;
+        do {
+            jtis = nextBatch.get();
+            if (!jtis.isEmpty()) {
+                purged += rts.deleteByJtiIn(jtis);
+            }
+        } while (jtis.size() == batchSize);
+        return purged;
+    }
+}
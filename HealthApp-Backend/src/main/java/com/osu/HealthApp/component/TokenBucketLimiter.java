@@ -0,0 +1,53 @@
+package com.osu.HealthApp.component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets, one per key, in GCRA form: each bucket is a single AtomicLong holding the
+ * "theoretical arrival time" and a take is one CAS. A bucket whose TAT is in the past is full again and
+ * carries no state worth keeping, which is what {@link #evictIdle} drops. Above maxKeys, unseen keys
+ * are let through untracked rather than growing the map.
+ */
+public class TokenBucketLimiter {
+
+    private final long emissionNanos; // time to earn one token
+    private final long burstNanos;    // how far ahead of now the TAT may run
+    private final int maxKeys;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketLimiter(int perMinute, int burst, int maxKeys) {
+        this.emissionNanos = 60_000_000_000L / perMinute;
+        this.burstNanos = emissionNanos * Math.max(0, burst - 1);
+        this.maxKeys = maxKeys;
+    }
+
+    /** 0 if a token was taken, otherwise how long (nanos) until one is available. */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            if (buckets.size() >= maxKeys) {
+                evictIdle(nowNanos);
+                if (buckets.size() >= maxKeys) return 0;
+            }
+            tat = buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        }
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, nowNanos);
+            long wait = base - burstNanos - nowNanos;
+            if (wait > 0) return wait;
+            if (tat.compareAndSet(current, base + emissionNanos)) return 0;
+        }
+    }
+
+    /** Drop buckets that have refilled completely. */
+    public void evictIdle(long nowNanos) {
+        buckets.values().removeIf(tat -> tat.get() - nowNanos <= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
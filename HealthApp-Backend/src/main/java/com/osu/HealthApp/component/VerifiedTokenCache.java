@@ -0,0 +1,92 @@
+package com.osu.HealthApp.component;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers access tokens that already passed JwtService.parse, so the SPA re-sending the same cookie doesn't
+ * pay for HMAC verification and claim deserialization on every request. Keyed by SHA-256 of the token;
+ * an entry lives until the token's own exp. Bounded: when full, expired entries are swept first, then
+ * arbitrary ones are dropped. Revocation checks stay in JwtCookieAuthFilter and run on every request.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private record Entry(Claims claims, long expiresAtMillis) {}
+
+    private final JwtService jwt;
+    private final boolean enabled;
+    private final int maxSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public VerifiedTokenCache(JwtService jwt, MeterRegistry meters,
+                              @Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.jwt = jwt;
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.hits = meters.counter("jwt.cache.requests", "result", "hit");
+        this.misses = meters.counter("jwt.cache.requests", "result", "miss");
+        this.evictions = meters.counter("jwt.cache.evictions");
+        Gauge.builder("jwt.cache.size", entries, Map::size).register(meters);
+    }
+
+    /** Verified claims for the token; throws like JwtService.parse if it's invalid or expired. */
+    public Claims verify(String token) {
+        if (!enabled) {
+            return jwt.parse(token).getPayload();
+        }
+        String key = digest(token);
+        long now = System.currentTimeMillis();
+        Entry cached = entries.get(key);
+        if (cached != null && cached.expiresAtMillis() > now) {
+            hits.increment();
+            return cached.claims();
+        }
+        misses.increment();
+        Claims claims = jwt.parse(token).getPayload();
+        if (claims.getExpiration() != null) {
+            if (entries.size() >= maxSize) {
+                makeRoom(now);
+            }
+            entries.put(key, new Entry(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    private synchronized void makeRoom(long now) {
+        int before = entries.size();
+        if (before < maxSize) return; // another thread already did
+        entries.values().removeIf(e -> e.expiresAtMillis() <= now);
+        int target = maxSize - maxSize / 10;
+        for (Iterator<String> it = entries.keySet().iterator(); it.hasNext() && entries.size() > target; ) {
+            it.next();
+            it.remove();
+        }
+        evictions.increment(before - entries.size());
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
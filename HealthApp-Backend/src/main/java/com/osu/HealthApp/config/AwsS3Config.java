@@ -1,31 +1,57 @@
 package com.osu.HealthApp.config;
 
+import com.osu.HealthApp.component.FileSystemS3Client;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.nio.file.Path;
 
 @Configuration
 public class AwsS3Config {
 
-    @Value("${aws.accessKeyId}")
+    @Value("${aws.accessKeyId:}")
     private String accessKeyId;
 
-    @Value("${aws.secretAccessKey}")
+    @Value("${aws.secretAccessKey:}")
     private String secretAccessKey;
 
     @Value("${aws.region}")
     private String region;
 
     @Bean
+    @ConditionalOnExpression("'${aws.s3.local-dir:}'.isEmpty()")
     public S3Client s3Client() {
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKeyId, secretAccessKey);
         return S3Client.builder()
                 .region(Region.of(region))
-                .credentialsProvider(StaticCredentialsProvider.create(credentials))
+                .credentialsProvider(credentials())
+                .build();
+    }
+
+    /** Signs direct-to-S3 upload URLs; not available with the local-dir stand-in. */
+    @Bean
+    @ConditionalOnExpression("'${aws.s3.local-dir:}'.isEmpty()")
+    public S3Presigner s3Presigner() {
+        return S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials())
                 .build();
     }
+
+    private StaticCredentialsProvider credentials() {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretAccessKey));
+    }
+
+    /** Offline stand-in: set aws.s3.local-dir to keep objects on disk instead of in S3. */
+    @Bean
+    @ConditionalOnExpression("!'${aws.s3.local-dir:}'.isEmpty()")
+    public S3Client fileSystemS3Client(@Value("${aws.s3.local-dir}") String localDir) {
+        return new FileSystemS3Client(Path.of(localDir), Region.of(region));
+    }
 }
\ No newline at end of file
@@ -1,15 +1,19 @@
 package com.osu.HealthApp.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-/** Central password policy: BCrypt with strength 12. */
+/**
+ * Central password policy: BCrypt, strength 12 by default. Raising auth.bcrypt.strength upgrades
+ * existing hashes on each user's next successful login.
+ */
 @Configuration
 public class PasswordConfig {
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(@Value("${auth.bcrypt.strength:12}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
\ No newline at end of file
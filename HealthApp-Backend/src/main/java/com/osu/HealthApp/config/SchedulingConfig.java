@@ -0,0 +1,10 @@
+package com.osu.HealthApp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Turns on @Scheduled housekeeping jobs (e.g. RefreshTokenPurger). */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,6 +1,8 @@
 package com.osu.HealthApp.config;
 
+import com.osu.HealthApp.component.AuthRateLimitFilter;
 import com.osu.HealthApp.component.JwtCookieAuthFilter;
+import com.osu.HealthApp.controller.AppointmentController;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -33,6 +35,7 @@ import static org.springframework.security.authorization.AuthorizationManagers.a
 public class SecurityConfig {
 
     private final JwtCookieAuthFilter jwtFilter;
+    private final AuthRateLimitFilter authRateLimitFilter;
 
     /**
      * security setup:
@@ -60,7 +63,7 @@ public class SecurityConfig {
                     c.setAllowedOrigins(allowedOrigins);
                     c.setAllowedMethods(List.of("GET","POST","PUT","PATCH","DELETE","OPTIONS"));
                     c.setAllowedHeaders(List.of("*"));
-                    c.setExposedHeaders(List.of("Set-Cookie"));
+                    c.setExposedHeaders(List.of("Set-Cookie", AppointmentController.NEXT_CURSOR_HEADER));
                     c.setAllowCredentials(true);
                     return c;
                 }))
@@ -77,6 +80,8 @@ public class SecurityConfig {
 
                         .requestMatchers(HttpMethod.GET, "/api/doctor/doctors").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/appointments/doctor/*/availability").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/appointments/doctor/*/availability/range").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/appointments/first-available").permitAll()
                         .requestMatchers("/api/users/me").authenticated()
                         .requestMatchers("/api/admin/**")
                         .access(allOf(hasRole("ADMIN"), hasAuthority("CONTEXT_STAFF")))
@@ -124,6 +129,7 @@ public class SecurityConfig {
                 )
 
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(authRateLimitFilter, JwtCookieAuthFilter.class)
                 .formLogin(AbstractHttpConfigurer::disable)
                 .httpBasic(AbstractHttpConfigurer::disable)
                 .authenticationProvider(authProvider);
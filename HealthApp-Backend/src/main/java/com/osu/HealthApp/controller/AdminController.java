@@ -1,11 +1,12 @@
 package com.osu.HealthApp.controller;
 
+import com.osu.HealthApp.dtos.AdminUserPage;
+import com.osu.HealthApp.dtos.AdminUserResponse;
+import com.osu.HealthApp.dtos.LiveRefreshTokens;
 import com.osu.HealthApp.dtos.SimpleUserRequest;
 import com.osu.HealthApp.dtos.UserRoleRequest;
 import com.osu.HealthApp.dtos.UserRoleResponse;
 import com.osu.HealthApp.models.Role;
-import com.osu.HealthApp.models.User;
-import com.osu.HealthApp.repo.UserRepository;
 import com.osu.HealthApp.service.AuthService;
 import com.osu.HealthApp.service.UserService;
 import jakarta.validation.Valid;
@@ -17,23 +18,47 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin")
 @RequiredArgsConstructor
 public class AdminController {
 	
-	private final UserRepository users;
 	private final UserService userService;
 	private final AuthService authService;
 	
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/getusers")
     public Map<String, Set<Role>> getUsers() {
-        return users.findAll().stream().collect(Collectors.toMap(User::getEmail, User::getRoles));
+        return userService.getAllUserRoles();
+    }
+
+    /** Paged admin user listing; the next page's cursor is returned in the X-Next-Cursor header. */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/users")
+    public ResponseEntity<List<AdminUserResponse>> listUsers(
+            @RequestParam(required = false) Role role,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(required = false) String q,     // email / first name / last name prefix
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        AdminUserPage page = userService.listUsers(role, enabled, q, cursor, limit);
+        var response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(AppointmentController.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+	
+    /** Open sessions for one user: refresh tokens that are neither revoked nor expired. */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/users/{userId}/refresh-tokens/live")
+    public LiveRefreshTokens liveRefreshTokens(@PathVariable Long userId) {
+        return authService.countLiveRefreshTokens(userId);
     }
 	
 	@PreAuthorize("hasRole('ADMIN')")
@@ -1,22 +1,34 @@
 package com.osu.HealthApp.controller;
 
+import com.osu.HealthApp.dtos.AppointmentFilter;
+import com.osu.HealthApp.dtos.AppointmentPage;
 import com.osu.HealthApp.dtos.AppointmentRequest;
 import com.osu.HealthApp.dtos.AppointmentNoteResultRequest;
 import com.osu.HealthApp.dtos.AppointmentResponse;
+import com.osu.HealthApp.dtos.AppointmentSeriesRequest;
+import com.osu.HealthApp.dtos.AvailableSlotResponse;
+import com.osu.HealthApp.dtos.BulkAppointmentResult;
 import com.osu.HealthApp.dtos.DoctorAvailabilityResponse;
+import com.osu.HealthApp.models.AppointmentStatus;
 import com.osu.HealthApp.service.AppointmentService;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/appointments")
 public class AppointmentController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final AppointmentService appointmentService;
 
     public AppointmentController(AppointmentService s) {
@@ -28,6 +40,31 @@ public class AppointmentController {
         return appointmentService.createAppointment(request);
     }
 
+    /** Book a recurring series (all occurrences or none). */
+    @PostMapping("/series")
+    public List<AppointmentResponse> createSeries(@RequestBody AppointmentSeriesRequest request) {
+        return appointmentService.createAppointmentSeries(request);
+    }
+
+    /** Move this occurrence and shift every later one in its series by the same amount. */
+    @PutMapping("/{appointmentId}/following")
+    public List<AppointmentResponse> updateFollowing(@PathVariable Long appointmentId, @RequestBody AppointmentRequest request) {
+        return appointmentService.updateAppointmentAndFollowing(appointmentId, request);
+    }
+
+    /** Cancel this occurrence and every later one in its series. */
+    @DeleteMapping("/{appointmentId}/following")
+    public ResponseEntity<Void> deleteFollowing(@PathVariable Long appointmentId) {
+        appointmentService.deleteAppointmentAndFollowing(appointmentId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /** Staff-only: create many appointments at once; one result per item, in request order. */
+    @PostMapping("/bulk")
+    public List<BulkAppointmentResult> createBulk(@RequestBody List<AppointmentRequest> requests) {
+        return appointmentService.createAppointments(requests);
+    }
+
     @PreAuthorize("hasRole(\"NURSE\") and hasAuthority(\"CONTEXT_STAFF\")")
     @PostMapping("/submitNote")
     public ResponseEntity<Void> submitNote(@RequestBody AppointmentNoteResultRequest request) {
@@ -50,7 +87,7 @@ public class AppointmentController {
         System.out.println("Fetching Nurse Note for appointmentId: " + appointmentId);
         String note = appointmentService.getNurseNote(appointmentId);
         System.out.println("Retrieved Nurse Note: " + note);
-        return appointmentService.getNurseNote(appointmentId);
+        return note;
     }
 
     @PreAuthorize("(hasRole(\"DOCTOR\") and hasAuthority(\"CONTEXT_STAFF\")) or (hasRole(\"PATIENT\") and hasAuthority(\"CONTEXT_PATIENT\"))") //For HIPPA reasons, only relevant medical staff (or for the result, the relevant patient) should be able to pull sensitive medical info
@@ -58,17 +95,31 @@ public class AppointmentController {
     public String getResult(@PathVariable Long appointmentId) {
         String result = appointmentService.getAppointmentResult(appointmentId);
         System.out.println("Retrieved Appointment Result: " + result);
-        return appointmentService.getAppointmentResult(appointmentId);
+        return result;
     }
 
     @GetMapping("/patient/{patientId}")
-    public List<AppointmentResponse> getForPatient(@PathVariable Long patientId) {
-        return appointmentService.getAppointmentsForPatient(patientId);
+    public ResponseEntity<List<AppointmentResponse>> getForPatient(
+            @PathVariable Long patientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return page(appointmentService.getAppointmentsForPatient(patientId, new AppointmentFilter(from, to, status, cursor, limit)));
     }
 
     @GetMapping("/doctor/{doctorId}")
-    public List<AppointmentResponse> getForDoctor(@PathVariable Long doctorId) {
-        return appointmentService.getAppointmentsForDoctor(doctorId);
+    public ResponseEntity<List<AppointmentResponse>> getForDoctor(
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return page(appointmentService.getAppointmentsForDoctor(doctorId, new AppointmentFilter(from, to, status, cursor, limit)));
     }
 
     @GetMapping("/doctor/{doctorId}/availability")
@@ -79,8 +130,58 @@ public class AppointmentController {
         return appointmentService.getAvailabilityForDoctor(doctorId, LocalDate.parse(date));
     }
 
+    @GetMapping("/doctor/{doctorId}/availability/range")
+    public List<DoctorAvailabilityResponse> availabilityRange(
+            @PathVariable Long doctorId,
+            @RequestParam String from, // "yyyy-MM-dd", inclusive
+            @RequestParam String to    // "yyyy-MM-dd", inclusive, at most 31 days after from
+    ) {
+        return appointmentService.getAvailabilityForDoctor(doctorId, LocalDate.parse(from), LocalDate.parse(to));
+    }
+
+    /** Earliest free slots across all doctors (or the given doctorIds) between from and to (default: the next 14 days). */
+    @GetMapping("/first-available")
+    public List<AvailableSlotResponse> firstAvailable(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(required = false) List<Long> doctorIds
+    ) {
+        OffsetDateTime start = from != null ? from : OffsetDateTime.now();
+        OffsetDateTime end = to != null ? to : start.plusDays(14);
+        return appointmentService.findFirstAvailableSlots(start, end, limit, doctorIds);
+    }
+
     @GetMapping
-    public List<AppointmentResponse> getAll() {
-        return appointmentService.getAllAppointments();
+    public ResponseEntity<List<AppointmentResponse>> getAll(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return page(appointmentService.getAllAppointments(new AppointmentFilter(from, to, status, cursor, limit)));
+    }
+
+    /** Staff-only bulk export of appointments starting in [from, to), streamed as NDJSON (default) or CSV. */
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(defaultValue = "NDJSON") AppointmentService.ExportFormat format,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(format == AppointmentService.ExportFormat.CSV ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=appointments." + format.name().toLowerCase());
+        appointmentService.exportAppointments(from, to, format, response.getOutputStream());
+    }
+
+    /** Lists stay plain JSON arrays; the cursor for the next page (if any) goes in the X-Next-Cursor header. */
+    private static ResponseEntity<List<AppointmentResponse>> page(AppointmentPage page) {
+        var response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 }
@@ -0,0 +1,27 @@
+package com.osu.HealthApp.controller;
+
+import com.osu.HealthApp.dtos.HealthMetricAlert;
+import com.osu.HealthApp.service.HealthMetricService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/health-metric-alerts")
+public class HealthMetricAlertController {
+    private final HealthMetricService healthMetricService;
+    public HealthMetricAlertController(HealthMetricService healthMetricService) { this.healthMetricService = healthMetricService; }
+
+    /** Staff-only: drains pending alerts, oldest first. waitSeconds > 0 long-polls until one arrives. */
+    @GetMapping
+    public List<HealthMetricAlert> pollAlerts(
+            @RequestParam(defaultValue = "100") int max,
+            @RequestParam(defaultValue = "0") long waitSeconds
+    ) {
+        return healthMetricService.pollAlerts(max, Duration.ofSeconds(waitSeconds));
+    }
+}
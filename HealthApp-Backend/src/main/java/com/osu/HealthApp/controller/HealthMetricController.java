@@ -1,11 +1,23 @@
 package com.osu.HealthApp.controller;
 
+import com.osu.HealthApp.dtos.HealthMetricBatchResult;
 import com.osu.HealthApp.dtos.HealthMetricDto;
+import com.osu.HealthApp.dtos.HealthMetricSeries;
+import com.osu.HealthApp.dtos.HealthMetricSummaryCheck;
+import com.osu.HealthApp.dtos.HealthMetricSummaryResponse;
 import com.osu.HealthApp.service.HealthMetricService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/users/{userId}/health-metrics")
 public class HealthMetricController {
@@ -19,4 +31,45 @@ public class HealthMetricController {
     ) {
         return ResponseEntity.ok(healthMetricService.addHealthMetricForUser(userId, metricDto));
     }
+
+    /**
+     * Device bursts as a JSON array or newline-delimited JSON, parsed while the body is still arriving so the
+     * reading cap applies before anything is buffered. Invalid readings are skipped and reported by index.
+     */
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public HealthMetricBatchResult addHealthMetrics(@PathVariable Long userId, HttpServletRequest request) throws IOException {
+        return healthMetricService.addHealthMetrics(userId, request.getInputStream());
+    }
+
+    @GetMapping("/summary")
+    public HealthMetricSummaryResponse getSummary(@PathVariable Long userId) {
+        return healthMetricService.getSummary(userId);
+    }
+
+    /** Staff-only: recompute the summary from the raw readings. */
+    @PostMapping("/summary/rebuild")
+    public HealthMetricSummaryResponse rebuildSummary(@PathVariable Long userId) {
+        return healthMetricService.rebuildSummary(userId);
+    }
+
+    /** Staff-only: stored summary vs a full recompute. */
+    @GetMapping("/summary/check")
+    public HealthMetricSummaryCheck checkSummary(@PathVariable Long userId) {
+        return healthMetricService.checkSummary(userId);
+    }
+
+    /** Time series for charts; omit from/to for the whole history. */
+    @GetMapping
+    public HealthMetricSeries getHealthMetrics(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(defaultValue = "DAY") HealthMetricSeries.Resolution resolution,
+            @RequestParam(defaultValue = "MIN,MAX,AVG,LAST") Set<HealthMetricSeries.Aggregate> aggregates
+    ) {
+        return healthMetricService.getSeries(userId,
+                from != null ? from.toInstant() : Instant.EPOCH,
+                to != null ? to.toInstant() : Instant.now().plusSeconds(1),
+                resolution, aggregates);
+    }
 }
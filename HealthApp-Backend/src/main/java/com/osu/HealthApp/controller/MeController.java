@@ -1,16 +1,13 @@
 package com.osu.HealthApp.controller;
 
+import com.osu.HealthApp.component.AuthenticatedUser;
 import com.osu.HealthApp.dtos.MeResponse;
-import com.osu.HealthApp.models.User;
-import com.osu.HealthApp.repo.UserRepository;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -18,26 +15,14 @@ import java.util.List;
 @RequestMapping("/api")
 public class MeController {
 
-    private final UserRepository userRepository;
-
-    public MeController(UserRepository userRepository) {
-        this.userRepository = userRepository;
-    }
-
     @GetMapping("/me")
     public ResponseEntity<MeResponse> me(Authentication auth) {
-        if (auth == null || auth.getName() == null) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
-        }
-
-        String email = auth.getName(); // username in system
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        AuthenticatedUser user = AuthenticatedUser.of(auth);
 
         List<String> authorities = auth.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .toList();
 
-        return ResponseEntity.ok(new MeResponse(user.getId(), email, authorities));
+        return ResponseEntity.ok(new MeResponse(user.getId(), user.getEmail(), authorities));
     }
 }
\ No newline at end of file
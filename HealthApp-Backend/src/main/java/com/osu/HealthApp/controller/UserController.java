@@ -1,9 +1,12 @@
 package com.osu.HealthApp.controller;
 
+import com.osu.HealthApp.dtos.DirectPhotoUploadRequest;
 import com.osu.HealthApp.dtos.PasswordResetDto;
+import com.osu.HealthApp.dtos.PhotoUploadStatus;
+import com.osu.HealthApp.dtos.PresignedPhotoUpload;
 import com.osu.HealthApp.dtos.UserProfileDto;
 import com.osu.HealthApp.dtos.UserProfileResponseDto;
-import com.osu.HealthApp.models.User;
+import com.osu.HealthApp.service.ProfilePhotoService;
 import com.osu.HealthApp.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,41 +23,57 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
+    private final ProfilePhotoService profilePhotoService;
 
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<UserProfileResponseDto> getMyProfile(Authentication authentication) {
-        User user = userService.getUserFromAuthentication(authentication);
-        return ResponseEntity.ok(userService.getUserProfileById(user.getId()));
+        Long userId = userService.getUserIdFromAuthentication(authentication);
+        return ResponseEntity.ok(userService.getUserProfileById(userId));
     }
 
     @PutMapping("/me/profile")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<UserProfileResponseDto> updateMyProfile(Authentication authentication, @RequestBody UserProfileDto profileDto) {
-        User user = userService.getUserFromAuthentication(authentication);
-        return ResponseEntity.ok(userService.updateUserProfile(user.getId(), profileDto));
+        Long userId = userService.getUserIdFromAuthentication(authentication);
+        return ResponseEntity.ok(userService.updateUserProfile(userId, profileDto));
     }
 
+    /** Accepts the photo and uploads it in the background; poll the returned uploadId for completion. */
     @PostMapping(path = "/me/profile-photo", consumes = "multipart/form-data")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> uploadMyProfilePhoto(Authentication authentication, @RequestParam("file") MultipartFile file) {
-        User user = userService.getUserFromAuthentication(authentication);
+        Long userId = userService.getUserIdFromAuthentication(authentication);
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().body(Map.of("error", "File cannot be empty."));
         }
-        try {
-            String fileUrl = userService.updateProfilePhoto(user.getId(), file);
-            return ResponseEntity.ok(Map.of("profilePhotoUrl", fileUrl));
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of("error", "Failed to upload file: " + e.getMessage()));
-        }
+        return ResponseEntity.accepted().body(profilePhotoService.submit(userId, file));
+    }
+
+    /** Issues a short-lived URL to PUT the photo straight to storage; finish with the completion call below. */
+    @PostMapping("/me/profile-photo/direct")
+    @PreAuthorize("isAuthenticated()")
+    public PresignedPhotoUpload presignMyProfilePhoto(Authentication authentication, @RequestBody DirectPhotoUploadRequest request) {
+        return profilePhotoService.presignDirect(userService.getUserIdFromAuthentication(authentication), request);
+    }
+
+    @PostMapping("/me/profile-photo/direct/{uploadId}/complete")
+    @PreAuthorize("isAuthenticated()")
+    public PhotoUploadStatus completeMyProfilePhoto(Authentication authentication, @PathVariable String uploadId) {
+        return profilePhotoService.completeDirect(userService.getUserIdFromAuthentication(authentication), uploadId);
+    }
+
+    @GetMapping("/me/profile-photo/uploads/{uploadId}")
+    @PreAuthorize("isAuthenticated()")
+    public PhotoUploadStatus getMyProfilePhotoUpload(Authentication authentication, @PathVariable String uploadId) {
+        return profilePhotoService.status(userService.getUserIdFromAuthentication(authentication), uploadId);
     }
 
     @PostMapping("/me/password")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> resetMyPassword(Authentication authentication, @RequestBody PasswordResetDto passwordDto) {
-        User user = userService.getUserFromAuthentication(authentication);
-        userService.updateUserPassword(user.getId(), passwordDto);
+        Long userId = userService.getUserIdFromAuthentication(authentication);
+        userService.updateUserPassword(userId, passwordDto);
         return ResponseEntity.ok(Map.of("message", "Password updated successfully."));
     }
 
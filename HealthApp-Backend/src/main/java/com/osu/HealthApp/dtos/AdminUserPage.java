@@ -0,0 +1,9 @@
+package com.osu.HealthApp.dtos;
+
+import java.util.List;
+
+/** One page of users ordered by id; nextCursor is null on the last page. */
+public record AdminUserPage(
+        List<AdminUserResponse> items,
+        String nextCursor
+) {}
@@ -0,0 +1,30 @@
+package com.osu.HealthApp.dtos;
+
+import com.osu.HealthApp.models.Role;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/** One row of the admin user listing. */
+public record AdminUserResponse(
+        Long id,
+        String email,
+        String firstName,
+        String lastName,
+        boolean enabled,
+        Set<Role> roles
+) {
+    /** Used by the JPQL projection, which aggregates roles into one comma-separated column. */
+    public AdminUserResponse(Long id, String email, String firstName, String lastName, boolean enabled, String roles) {
+        this(id, email, firstName, lastName, enabled, parseRoles(roles));
+    }
+
+    private static Set<Role> parseRoles(String roles) {
+        Set<Role> parsed = EnumSet.noneOf(Role.class);
+        if (roles != null && !roles.isEmpty()) {
+            Arrays.stream(roles.split(",")).map(Role::valueOf).forEach(parsed::add);
+        }
+        return parsed;
+    }
+}
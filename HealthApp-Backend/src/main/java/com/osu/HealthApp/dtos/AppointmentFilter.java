@@ -0,0 +1,14 @@
+package com.osu.HealthApp.dtos;
+
+import com.osu.HealthApp.models.AppointmentStatus;
+
+import java.time.OffsetDateTime;
+
+/** Optional filters and keyset position for appointment listings. Any field may be null. */
+public record AppointmentFilter(
+        OffsetDateTime from,     // startTime >= from
+        OffsetDateTime to,       // startTime < to
+        AppointmentStatus status,
+        String cursor,           // nextCursor from the previous page
+        Integer limit            // page size, 100 by default and at most 500
+) {}
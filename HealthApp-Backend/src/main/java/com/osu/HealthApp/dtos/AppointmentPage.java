@@ -0,0 +1,9 @@
+package com.osu.HealthApp.dtos;
+
+import java.util.List;
+
+/** One page of appointments ordered by (startTime, id); nextCursor is null on the last page. */
+public record AppointmentPage(
+        List<AppointmentResponse> items,
+        String nextCursor
+) {}
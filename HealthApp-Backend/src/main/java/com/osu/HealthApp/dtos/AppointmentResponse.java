@@ -1,10 +1,14 @@
 package com.osu.HealthApp.dtos;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.OffsetDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor // field order is relied on by the projection queries in AppointmentRepository
 public class AppointmentResponse {
     private Long id;
     private Long patientId;
@@ -14,4 +18,5 @@ public class AppointmentResponse {
     private OffsetDateTime startTime;
     private OffsetDateTime endTime;
     private String reason;
+    private String seriesId;
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.osu.HealthApp.dtos;
+
+import com.osu.HealthApp.models.RecurrenceFrequency;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * RRULE-like recurring booking: the first occurrence is startTime/endTime, then one every
+ * {@code interval} {@code frequency} units (clinic local time) until {@code count} occurrences or {@code until}.
+ */
+@Data
+public class AppointmentSeriesRequest {
+    private Long patientId;
+    private Long doctorId;
+    private OffsetDateTime startTime;
+    private OffsetDateTime endTime;
+    private String reason;
+    private RecurrenceFrequency frequency;
+    private Integer interval;
+    private Integer count;
+    private OffsetDateTime until;
+}
@@ -0,0 +1,16 @@
+package com.osu.HealthApp.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableSlotResponse {
+    private Long doctorId;
+    private OffsetDateTime startTime;
+    private OffsetDateTime endTime;
+}
@@ -0,0 +1,12 @@
+package com.osu.HealthApp.dtos;
+
+/**
+ * Outcome of one item in a bulk create. status mirrors what the single-item endpoint would have answered
+ * (201 created, 400 invalid, 409 slot conflict); appointmentId is set only when created.
+ */
+public record BulkAppointmentResult(
+        int index,
+        int status,
+        Long appointmentId,
+        String error
+) {}
@@ -0,0 +1,10 @@
+package com.osu.HealthApp.dtos;
+
+import lombok.Data;
+
+/** What the client is about to PUT straight to storage; both values are baked into the signed URL. */
+@Data
+public class DirectPhotoUploadRequest {
+    private String contentType;
+    private Long contentLength;
+}
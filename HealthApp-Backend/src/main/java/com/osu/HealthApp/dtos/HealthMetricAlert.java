@@ -0,0 +1,17 @@
+package com.osu.HealthApp.dtos;
+
+import java.time.Instant;
+
+/**
+ * A reading that tripped an alert rule. {@code reference} is what the value was compared against: the
+ * threshold for above/below rules, the earlier extreme in the window for change rules.
+ */
+public record HealthMetricAlert(
+        Long userId,
+        String rule,
+        String message,
+        double value,
+        double reference,
+        Instant recordedAt,
+        Instant raisedAt
+) {}
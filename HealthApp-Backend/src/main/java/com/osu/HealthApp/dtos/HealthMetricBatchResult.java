@@ -0,0 +1,11 @@
+package com.osu.HealthApp.dtos;
+
+import java.util.List;
+
+/** Outcome of a batch upload: how many readings were stored, and which ones weren't (by position) and why. */
+public record HealthMetricBatchResult(
+        int accepted,
+        List<Rejected> rejected
+) {
+    public record Rejected(int index, String error) {}
+}
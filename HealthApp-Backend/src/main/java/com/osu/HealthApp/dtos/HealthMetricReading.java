@@ -0,0 +1,10 @@
+package com.osu.HealthApp.dtos;
+
+import java.time.Instant;
+
+/** One device reading in a batch upload: weight in kg, height in m. recordedAt defaults to the time of upload. */
+public record HealthMetricReading(
+        Double weight,
+        Double height,
+        Instant recordedAt
+) {}
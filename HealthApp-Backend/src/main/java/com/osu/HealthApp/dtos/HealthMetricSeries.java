@@ -0,0 +1,27 @@
+package com.osu.HealthApp.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A user's weight/height/BMI readings in [from, to), one point per reading (RAW) or per UTC day, ISO week
+ * or calendar month. Only the requested aggregates are filled in.
+ */
+public record HealthMetricSeries(
+        Resolution resolution,
+        Instant from,
+        Instant to,
+        List<Point> points
+) {
+    public enum Resolution { RAW, DAY, WEEK, MONTH }
+
+    public enum Aggregate { MIN, MAX, AVG, LAST }
+
+    /** {@code start} is the reading time for RAW, otherwise the start of the bucket. */
+    public record Point(Instant start, int count, Stats weight, Stats height, Stats bmi) {}
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Stats(Double min, Double max, Double avg, Double last) {}
+}
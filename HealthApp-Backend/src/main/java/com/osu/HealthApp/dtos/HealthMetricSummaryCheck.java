@@ -0,0 +1,11 @@
+package com.osu.HealthApp.dtos;
+
+import java.util.List;
+
+/** The stored summary next to a full recompute from the readings; differences names the fields that disagree. */
+public record HealthMetricSummaryCheck(
+        boolean consistent,
+        List<String> differences,
+        HealthMetricSummaryResponse stored,
+        HealthMetricSummaryResponse recomputed
+) {}
@@ -0,0 +1,22 @@
+package com.osu.HealthApp.dtos;
+
+import java.time.Instant;
+
+/**
+ * Dashboard summary of a user's readings: the latest reading, all-time BMI range, and the last 30 days'
+ * average weight, BMI range and weight trend (least squares over daily means, kg per week).
+ */
+public record HealthMetricSummaryResponse(
+        Long userId,
+        long readingCount,
+        Instant latestAt,
+        Double latestWeight,
+        Double latestHeight,
+        Double latestBmi,
+        Double minBmi,
+        Double maxBmi,
+        Double avgWeight30d,
+        Double minBmi30d,
+        Double maxBmi30d,
+        Double weightTrendKgPerWeek
+) {}
@@ -0,0 +1,4 @@
+package com.osu.HealthApp.dtos;
+
+/** How many of a user's refresh tokens can still be used, i.e. their open sessions. */
+public record LiveRefreshTokens(Long userId, long live) {}
@@ -0,0 +1,21 @@
+package com.osu.HealthApp.dtos;
+
+import java.time.Instant;
+
+/**
+ * Progress of an asynchronous profile photo upload. profilePhotoUrl is where the photo will live;
+ * it is only recorded on the user once state is DONE.
+ */
+public record PhotoUploadStatus(
+        String uploadId,
+        State state,
+        String profilePhotoUrl,
+        String error,
+        Instant updatedAt
+) {
+    public enum State { PENDING, UPLOADING, DONE, FAILED }
+
+    public PhotoUploadStatus with(State state, String error) {
+        return new PhotoUploadStatus(uploadId, state, profilePhotoUrl, error, Instant.now());
+    }
+}
@@ -0,0 +1,15 @@
+package com.osu.HealthApp.dtos;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A signed URL to PUT the photo to. The PUT must send exactly {@code headers}; afterwards the client calls
+ * the completion endpoint with {@code uploadId} so the photo is checked and recorded.
+ */
+public record PresignedPhotoUpload(
+        String uploadId,
+        String uploadUrl,
+        Map<String, String> headers,
+        Instant expiresAt
+) {}
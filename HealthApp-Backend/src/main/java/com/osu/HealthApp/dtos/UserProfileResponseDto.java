@@ -4,6 +4,7 @@ import com.osu.HealthApp.models.Gender;
 import lombok.Data;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 @Data
 public class UserProfileResponseDto {
@@ -13,6 +14,7 @@ public class UserProfileResponseDto {
     private String email;
     private String phoneNumber;
     private String profilePhotoUrl;
+    private Map<Integer, String> profilePhotoVariants; // edge length in px -> URL
     private LocalDate dateOfBirth;
     private Gender gender;
     private AddressDto address;
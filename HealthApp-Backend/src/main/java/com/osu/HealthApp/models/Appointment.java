@@ -7,10 +7,18 @@ import lombok.Data;
 import java.time.OffsetDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_appointment_doctor_start", columnList = "doctor_id, start_time, id"),
+        @Index(name = "idx_appointment_patient_start", columnList = "patient_id, start_time, id"),
+        @Index(name = "idx_appointment_start", columnList = "start_time, id"),
+        @Index(name = "idx_appointment_series", columnList = "series_id, start_time")
+})
 @Data
 public class Appointment {
+    // sequence ids (allocated 50 at a time) let Hibernate batch inserts; see IdSequenceAligner for existing rows
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -23,11 +31,7 @@ public class Appointment {
     private OffsetDateTime endTime;
     private String reason;
 	
-	@Nullable
-	@Column(nullable=true)
-	private String nurseNotes;
-	
-	@Nullable
-	@Column(nullable=true)
-	private String appointmentResults;
+    /** Shared by every occurrence of a recurring booking; null for one-off appointments. */
+    @Nullable
+    private String seriesId;
 }
\ No newline at end of file
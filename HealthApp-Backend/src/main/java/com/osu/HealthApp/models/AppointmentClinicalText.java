@@ -0,0 +1,40 @@
+package com.osu.HealthApp.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Nurse notes and doctor results for an appointment, kept off the appointment row so listings, availability
+ * and conflict checks never read clinical text. Appointment has no mapping back to this; load it by id.
+ */
+@Entity
+@Table(name = "appointment_clinical_text")
+@Getter @Setter
+@NoArgsConstructor
+public class AppointmentClinicalText {
+    private static final int MAX_STORED_BYTES = 16 * 1024 * 1024;
+
+    @Id
+    private Long appointmentId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Appointment appointment;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = MAX_STORED_BYTES)
+    private String nurseNotes;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = MAX_STORED_BYTES)
+    private String appointmentResults;
+
+    public AppointmentClinicalText(Appointment appointment) {
+        this.appointment = appointment;
+    }
+}
@@ -0,0 +1,4 @@
+package com.osu.HealthApp.models;
+
+/** Derived from startTime relative to now; used only to filter listings. */
+public enum AppointmentStatus { UPCOMING, PAST }
@@ -6,11 +6,12 @@ import lombok.Data;
 import java.time.Instant;
 
 @Entity
-@Table(name = "health_metrics")
+@Table(name = "health_metrics", indexes = @Index(name = "idx_health_metrics_user_time", columnList = "user_id, recorded_at"))
 @Data
 public class HealthMetric {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "health_metric_seq")
+    @SequenceGenerator(name = "health_metric_seq", sequenceName = "health_metric_seq", allocationSize = 50)
     private Long id;
 
     private Double weight;
@@ -0,0 +1,41 @@
+package com.osu.HealthApp.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * Cold tier of health_metrics: one user's readings for one UTC calendar month, rolled up by
+ * HealthMetricCompactor and encoded with {@link MetricBlockCodec}.
+ */
+@Entity
+@Table(name = "health_metric_blocks",
+        uniqueConstraints = @UniqueConstraint(name = "uk_hmb_user_month", columnNames = {"user_id", "month_start"}))
+@Getter @Setter
+@NoArgsConstructor
+public class HealthMetricBlock {
+    private static final int MAX_STORED_BYTES = 16 * 1024 * 1024;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "health_metric_block_seq")
+    @SequenceGenerator(name = "health_metric_block_seq", sequenceName = "health_metric_block_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @Column(nullable = false)
+    private Instant monthStart;
+
+    private int readingCount;
+
+    @Column(nullable = false, length = MAX_STORED_BYTES)
+    private byte[] data;
+}
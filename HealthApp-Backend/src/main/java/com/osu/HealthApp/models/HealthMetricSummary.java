@@ -0,0 +1,49 @@
+package com.osu.HealthApp.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * Running summary of a user's health readings, updated in the same transaction as every insert so
+ * dashboards never scan the history. Rebuildable from the readings at any time.
+ */
+@Entity
+@Table(name = "health_metric_summaries")
+@Getter @Setter
+@NoArgsConstructor
+public class HealthMetricSummary {
+
+    @Id
+    private Long userId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    private long readingCount;
+
+    private Instant latestAt;
+    private Double latestWeight;
+    private Double latestHeight;
+    private Double latestBmi;
+
+    private Double minBmi;
+    private Double maxBmi;
+
+    /** {@link MetricWindow#encode()} of the last 30 days. */
+    @Column(length = 2048)
+    private byte[] dailyWindow;
+
+    private Instant updatedAt;
+
+    public HealthMetricSummary(User user) {
+        this.user = user;
+    }
+}
@@ -0,0 +1,304 @@
+package com.osu.HealthApp.models;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Gorilla-style column encoding for a block of health readings (Pelkonen et al., "Gorilla", VLDB 2015).
+ * Timestamps are stored as delta-of-deltas and each value column as XORs against the previous value, so
+ * regular readings cost about a bit for the timestamp and a few bits per slowly drifting value.
+ * One departure from the paper: our values are mostly short decimals (82.4 kg, BMI 25.43), which XOR badly,
+ * so a column whose values are all exact at up to {@link #MAX_SCALE} decimal places is stored as scaled
+ * integers with the same delta-of-delta buckets as the timestamps.
+ *
+ * <p>Layout: version byte, time unit byte, reading count (int), then one bit stream holding the timestamp
+ * column followed by the weight, height and BMI columns, each value column led by 3 bits giving its decimal
+ * scale or {@link #XOR}. Missing values are stored as NaN.
+ */
+public final class MetricBlockCodec {
+
+    private static final byte VERSION = 1;
+    private static final long[] UNITS = {1_000_000, 1_000, 1}; // in micros: seconds, millis, micros
+    private static final int MAX_SCALE = 4;
+    private static final int XOR = 7;
+    private static final double MAX_EXACT = 1L << 53;
+
+    /** One block's readings in time order; timestamps are epoch microseconds. */
+    public record Columns(long[] epochMicros, double[] weight, double[] height, double[] bmi) {
+        public int size() {
+            return epochMicros.length;
+        }
+    }
+
+    private MetricBlockCodec() {}
+
+    public static byte[] encode(Columns c) {
+        int n = c.size();
+        // the coarsest unit that loses nothing keeps regular device intervals at a one-bit delta-of-delta
+        byte unit = 0;
+        while (unit < UNITS.length - 1 && !allDivisible(c.epochMicros(), UNITS[unit])) unit++;
+        long divisor = UNITS[unit];
+
+        BitWriter bits = new BitWriter(n);
+        long[] times = new long[n];
+        for (int i = 0; i < n; i++) {
+            times[i] = c.epochMicros()[i] / divisor;
+        }
+        writeIntegers(bits, times);
+        writeColumn(bits, c.weight());
+        writeColumn(bits, c.height());
+        writeColumn(bits, c.bmi());
+
+        byte[] stream = bits.toByteArray();
+        return ByteBuffer.allocate(6 + stream.length).put(VERSION).put(unit).putInt(n).put(stream).array();
+    }
+
+    public static Columns decode(byte[] data) {
+        ByteBuffer header = ByteBuffer.wrap(data);
+        byte version = header.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown metric block version " + version);
+        }
+        long divisor = UNITS[header.get()];
+        int n = header.getInt();
+        BitReader bits = new BitReader(data, 6);
+
+        long[] micros = readIntegers(bits, n);
+        for (int i = 0; i < n; i++) {
+            micros[i] *= divisor;
+        }
+        return new Columns(micros, readColumn(bits, n), readColumn(bits, n), readColumn(bits, n));
+    }
+
+    private static void writeColumn(BitWriter bits, double[] values) {
+        int scale = decimalScale(values);
+        bits.write(scale, 3);
+        if (scale == XOR) {
+            writeValues(bits, values);
+            return;
+        }
+        double factor = Math.pow(10, scale);
+        long[] scaled = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            scaled[i] = Math.round(values[i] * factor);
+        }
+        writeIntegers(bits, scaled);
+    }
+
+    private static double[] readColumn(BitReader bits, int n) {
+        int scale = (int) bits.read(3);
+        if (scale == XOR) {
+            return readValues(bits, n);
+        }
+        double factor = Math.pow(10, scale);
+        long[] scaled = readIntegers(bits, n);
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = scaled[i] / factor;
+        }
+        return values;
+    }
+
+    /** The fewest decimal places at which every value survives a round trip bit for bit, or XOR if none do. */
+    private static int decimalScale(double[] values) {
+        for (int scale = 0; scale <= MAX_SCALE; scale++) {
+            double factor = Math.pow(10, scale);
+            boolean exact = true;
+            for (int i = 0; i < values.length && exact; i++) {
+                double scaled = values[i] * factor;
+                exact = Math.abs(scaled) < MAX_EXACT
+                        && Double.doubleToRawLongBits(Math.round(scaled) / factor) == Double.doubleToRawLongBits(values[i]);
+            }
+            if (exact) return scale;
+        }
+        return XOR;
+    }
+
+    private static void writeIntegers(BitWriter bits, long[] values) {
+        long prev = 0;
+        long prevDelta = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0) {
+                bits.write(values[i], 64);
+            } else {
+                long delta = values[i] - prev;
+                writeDeltaOfDelta(bits, delta - prevDelta);
+                prevDelta = delta;
+            }
+            prev = values[i];
+        }
+    }
+
+    private static long[] readIntegers(BitReader bits, int n) {
+        long[] values = new long[n];
+        long prevDelta = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0) {
+                values[i] = bits.read(64);
+            } else {
+                prevDelta += readDeltaOfDelta(bits);
+                values[i] = values[i - 1] + prevDelta;
+            }
+        }
+        return values;
+    }
+
+    // '0' for no change, then 7/12/20-bit signed buckets, else the full 64 bits
+    private static void writeDeltaOfDelta(BitWriter bits, long dod) {
+        if (dod == 0) {
+            bits.write(0b0, 1);
+        } else if (fits(dod, 7)) {
+            bits.write(0b10, 2);
+            bits.write(dod, 7);
+        } else if (fits(dod, 12)) {
+            bits.write(0b110, 3);
+            bits.write(dod, 12);
+        } else if (fits(dod, 20)) {
+            bits.write(0b1110, 4);
+            bits.write(dod, 20);
+        } else {
+            bits.write(0b1111, 4);
+            bits.write(dod, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader bits) {
+        if (bits.read(1) == 0) return 0;
+        if (bits.read(1) == 0) return signed(bits.read(7), 7);
+        if (bits.read(1) == 0) return signed(bits.read(12), 12);
+        if (bits.read(1) == 0) return signed(bits.read(20), 20);
+        return bits.read(64);
+    }
+
+    // XOR with the previous value: '0' if equal; '10' + the meaningful bits if they fit the previous window;
+    // '11' + 5 bits of leading zeros + 6 bits of length + the meaningful bits otherwise
+    private static void writeValues(BitWriter bits, double[] values) {
+        long prev = 0;
+        int prevLeading = Integer.MAX_VALUE;
+        int prevTrailing = 0;
+        for (int i = 0; i < values.length; i++) {
+            long v = Double.doubleToLongBits(values[i]);
+            if (i == 0) {
+                bits.write(v, 64);
+                prev = v;
+                continue;
+            }
+            long xor = v ^ prev;
+            prev = v;
+            if (xor == 0) {
+                bits.write(0b0, 1);
+                continue;
+            }
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (leading >= prevLeading && trailing >= prevTrailing) {
+                bits.write(0b10, 2);
+                bits.write(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+            } else {
+                int length = 64 - leading - trailing;
+                bits.write(0b11, 2);
+                bits.write(leading, 5);
+                bits.write(length & 63, 6); // 64 wraps to 0
+                bits.write(xor >>> trailing, length);
+                prevLeading = leading;
+                prevTrailing = trailing;
+            }
+        }
+    }
+
+    private static double[] readValues(BitReader bits, int n) {
+        double[] values = new double[n];
+        long prev = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0) {
+                prev = bits.read(64);
+            } else if (bits.read(1) == 1) {
+                if (bits.read(1) == 1) {
+                    leading = (int) bits.read(5);
+                    int length = (int) bits.read(6);
+                    trailing = 64 - leading - (length == 0 ? 64 : length);
+                }
+                prev ^= bits.read(64 - leading - trailing) << trailing;
+            }
+            values[i] = Double.longBitsToDouble(prev);
+        }
+        return values;
+    }
+
+    private static boolean allDivisible(long[] values, long divisor) {
+        for (long v : values) {
+            if (v % divisor != 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean fits(long v, int bits) {
+        return v >= -(1L << (bits - 1)) && v < (1L << (bits - 1));
+    }
+
+    private static long signed(long v, int bits) {
+        return (v << (64 - bits)) >> (64 - bits);
+    }
+
+    /** Appends up to 64 bits at a time, most significant first. */
+    private static final class BitWriter {
+        private long[] words;
+        private long position;
+
+        BitWriter(int readings) {
+            words = new long[Math.max(4, readings)];
+        }
+
+        void write(long value, int count) {
+            if (count < 64) value &= (1L << count) - 1;
+            int word = (int) (position >>> 6);
+            int free = 64 - (int) (position & 63);
+            if (word + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            if (count <= free) {
+                words[word] |= value << (free - count);
+            } else {
+                words[word] |= value >>> (count - free);
+                words[word + 1] |= value << (64 - (count - free));
+            }
+            position += count;
+        }
+
+        byte[] toByteArray() {
+            int length = (int) ((position + 7) >>> 3);
+            ByteBuffer out = ByteBuffer.allocate((length + 7) & ~7);
+            for (int i = 0; i < out.capacity() / 8; i++) {
+                out.putLong(words[i]);
+            }
+            return Arrays.copyOf(out.array(), length);
+        }
+    }
+
+    private static final class BitReader {
+        private final long[] words;
+        private long position;
+
+        BitReader(byte[] data, int offset) {
+            ByteBuffer in = ByteBuffer.allocate(((data.length - offset + 7) & ~7) + 8)
+                    .put(data, offset, data.length - offset).rewind();
+            words = new long[in.capacity() / 8];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.getLong();
+            }
+        }
+
+        long read(int count) {
+            if (count == 0) return 0;
+            int word = (int) (position >>> 6);
+            int free = 64 - (int) (position & 63);
+            long value = count <= free
+                    ? words[word] >>> (free - count)
+                    : (words[word] << (count - free)) | (words[word + 1] >>> (64 - (count - free)));
+            position += count;
+            return count < 64 ? value & ((1L << count) - 1) : value;
+        }
+    }
+}
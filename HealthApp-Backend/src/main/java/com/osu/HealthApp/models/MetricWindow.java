@@ -0,0 +1,137 @@
+package com.osu.HealthApp.models;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The last {@link #DAYS} UTC days of a user's readings as one fixed slot per day, so a rolling window costs
+ * constant space and is exact at day granularity. A slot is reused when a newer day maps onto it; readings
+ * for a day older than the slot's are already out of every window and are dropped. The result doesn't
+ * depend on the order readings arrive in.
+ */
+public final class MetricWindow {
+
+    public static final int DAYS = 30;
+    private static final byte VERSION = 1;
+    private static final int SLOT_BYTES = 8 + 4 + 8 + 8 + 8;
+
+    private final long[] day = new long[DAYS];
+    private final int[] weightCount = new int[DAYS];
+    private final double[] weightSum = new double[DAYS];
+    private final double[] minBmi = new double[DAYS];
+    private final double[] maxBmi = new double[DAYS];
+
+    /** Window stats as of {@code today}; null where there were no readings. Slope is kg/day over daily means. */
+    public record View(int daysWithWeight, Double avgWeight, Double minBmi, Double maxBmi, Double weightSlopePerDay) {}
+
+    /** Extremes over a span of days; weight is per-day mean, since slots don't keep single weights. Null if no data. */
+    public record Range(Double minWeight, Double maxWeight, Double minBmi, Double maxBmi) {}
+
+    public MetricWindow() {
+        Arrays.fill(day, Long.MIN_VALUE);
+        Arrays.fill(minBmi, Double.NaN);
+        Arrays.fill(maxBmi, Double.NaN);
+    }
+
+    public void add(long epochDay, Double weight, Double bmi) {
+        int slot = (int) Math.floorMod(epochDay, (long) DAYS);
+        if (day[slot] > epochDay) {
+            return;
+        }
+        if (day[slot] < epochDay) {
+            day[slot] = epochDay;
+            weightCount[slot] = 0;
+            weightSum[slot] = 0;
+            minBmi[slot] = Double.NaN;
+            maxBmi[slot] = Double.NaN;
+        }
+        if (weight != null) {
+            weightCount[slot]++;
+            weightSum[slot] += weight;
+        }
+        if (bmi != null) {
+            minBmi[slot] = Double.isNaN(minBmi[slot]) ? bmi : Math.min(minBmi[slot], bmi);
+            maxBmi[slot] = Double.isNaN(maxBmi[slot]) ? bmi : Math.max(maxBmi[slot], bmi);
+        }
+    }
+
+    public View view(long today) {
+        int days = 0;
+        long count = 0;
+        double sum = 0;
+        double lo = Double.NaN;
+        double hi = Double.NaN;
+        // least squares of daily mean weight against day offset
+        double sx = 0, sy = 0, sxx = 0, sxy = 0;
+        for (int i = 0; i < DAYS; i++) {
+            if (day[i] <= today - DAYS) continue;
+            if (!Double.isNaN(minBmi[i])) {
+                lo = Double.isNaN(lo) ? minBmi[i] : Math.min(lo, minBmi[i]);
+                hi = Double.isNaN(hi) ? maxBmi[i] : Math.max(hi, maxBmi[i]);
+            }
+            if (weightCount[i] == 0) continue;
+            days++;
+            count += weightCount[i];
+            sum += weightSum[i];
+            double x = day[i] - today;
+            double y = weightSum[i] / weightCount[i];
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            sxy += x * y;
+        }
+        Double slope = days < 2 ? null : (days * sxy - sx * sy) / (days * sxx - sx * sx);
+        return new View(days, count == 0 ? null : sum / count,
+                Double.isNaN(lo) ? null : lo, Double.isNaN(hi) ? null : hi, slope);
+    }
+
+    /** Range over the {@code days} days ending with {@code lastDay}, inclusive. {@code days} is capped at {@link #DAYS}. */
+    public Range range(long lastDay, int days) {
+        double loW = Double.NaN, hiW = Double.NaN, loB = Double.NaN, hiB = Double.NaN;
+        for (int i = 0; i < DAYS; i++) {
+            if (day[i] > lastDay || day[i] <= lastDay - Math.min(days, DAYS)) continue;
+            if (weightCount[i] > 0) {
+                double mean = weightSum[i] / weightCount[i];
+                loW = Double.isNaN(loW) ? mean : Math.min(loW, mean);
+                hiW = Double.isNaN(hiW) ? mean : Math.max(hiW, mean);
+            }
+            if (!Double.isNaN(minBmi[i])) {
+                loB = Double.isNaN(loB) ? minBmi[i] : Math.min(loB, minBmi[i]);
+                hiB = Double.isNaN(hiB) ? maxBmi[i] : Math.max(hiB, maxBmi[i]);
+            }
+        }
+        return new Range(orNull(loW), orNull(hiW), orNull(loB), orNull(hiB));
+    }
+
+    private static Double orNull(double v) {
+        return Double.isNaN(v) ? null : v;
+    }
+
+    public byte[] encode() {
+        ByteBuffer out = ByteBuffer.allocate(1 + DAYS * SLOT_BYTES).put(VERSION);
+        for (int i = 0; i < DAYS; i++) {
+            out.putLong(day[i]).putInt(weightCount[i]).putDouble(weightSum[i]).putDouble(minBmi[i]).putDouble(maxBmi[i]);
+        }
+        return out.array();
+    }
+
+    public static MetricWindow decode(byte[] data) {
+        MetricWindow w = new MetricWindow();
+        if (data == null) {
+            return w;
+        }
+        ByteBuffer in = ByteBuffer.wrap(data);
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown metric window version " + version);
+        }
+        for (int i = 0; i < DAYS; i++) {
+            w.day[i] = in.getLong();
+            w.weightCount[i] = in.getInt();
+            w.weightSum[i] = in.getDouble();
+            w.minBmi[i] = in.getDouble();
+            w.maxBmi[i] = in.getDouble();
+        }
+        return w;
+    }
+}
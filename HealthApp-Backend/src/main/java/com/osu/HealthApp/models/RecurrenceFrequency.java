@@ -0,0 +1,3 @@
+package com.osu.HealthApp.models;
+
+public enum RecurrenceFrequency { DAILY, WEEKLY, MONTHLY }
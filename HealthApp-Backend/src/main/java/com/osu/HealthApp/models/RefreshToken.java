@@ -7,7 +7,11 @@ import lombok.Setter;
 import java.time.Instant;
 
 @Entity
-@Table(name = "refresh_tokens", indexes = @Index(name="idx_rt_user", columnList="user_id"))
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name="idx_rt_user_live", columnList="user_id, revoked, expires_at"),
+        @Index(name="idx_rt_expires", columnList="expires_at"),
+        @Index(name="idx_rt_revoked", columnList="revoked, jti")
+})
 @Getter @Setter
 public class RefreshToken {
     @Id
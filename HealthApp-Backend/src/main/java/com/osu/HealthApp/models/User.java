@@ -2,13 +2,11 @@ package com.osu.HealthApp.models;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.Instant;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 @Entity
 @Table(name = "users", uniqueConstraints = @UniqueConstraint(columnNames = "email"))
@@ -34,6 +32,13 @@ public class User {
 
     private String profilePhotoUrl;
 
+    /** Downscaled copies of the profile photo: edge length in px -> URL. Replaced whenever the photo changes. */
+    @ElementCollection
+    @CollectionTable(name = "user_photo_variants", joinColumns = @JoinColumn(name = "user_id"))
+    @MapKeyColumn(name = "size_px")
+    @Column(name = "url")
+    private Map<Integer, String> profilePhotoVariants = new HashMap<>();
+
     @Enumerated(EnumType.STRING)
     private Gender gender;
 
@@ -64,5 +69,10 @@ public class User {
 
 
     private boolean enabled = true;
+
+    /** Bumped whenever existing access tokens must stop working (disable, role change); see AccessTokenEpochs. */
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long authEpoch = 0;
     private Instant createdAt = Instant.now();
 }
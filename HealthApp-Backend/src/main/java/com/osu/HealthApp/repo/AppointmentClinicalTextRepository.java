@@ -0,0 +1,26 @@
+package com.osu.HealthApp.repo;
+
+import com.osu.HealthApp.models.AppointmentClinicalText;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface AppointmentClinicalTextRepository extends JpaRepository<AppointmentClinicalText, Long> {
+
+    /** Who the appointment belongs to plus one clinical text field; empty if the appointment doesn't exist. */
+    interface ClinicalTextView {
+        Long getPatientId();
+        Long getDoctorId();
+        String getText();
+    }
+
+    String VIEW_FROM = "from Appointment a left join AppointmentClinicalText c on c.appointmentId = a.id where a.id = :id";
+
+    @Query("select a.patient.id as patientId, a.doctor.id as doctorId, c.nurseNotes as text " + VIEW_FROM)
+    Optional<ClinicalTextView> findNurseNote(@Param("id") Long appointmentId);
+
+    @Query("select a.patient.id as patientId, a.doctor.id as doctorId, c.appointmentResults as text " + VIEW_FROM)
+    Optional<ClinicalTextView> findResult(@Param("id") Long appointmentId);
+}
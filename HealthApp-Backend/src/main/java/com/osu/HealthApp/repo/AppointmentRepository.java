@@ -1,17 +1,80 @@
 package com.osu.HealthApp.repo;
 
+import com.osu.HealthApp.dtos.AppointmentResponse;
 import com.osu.HealthApp.models.Appointment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     List<Appointment> findByPatientId(Long patientId);
 
     List<Appointment> findByDoctorId(Long doctorId);
 
+    List<Appointment> findBySeriesIdAndStartTimeGreaterThanEqualOrderByStartTime(String seriesId, OffsetDateTime from);
+
     List<Appointment> findByDoctorIdAndStartTimeBetween(
             Long doctorId, OffsetDateTime startInclusive, OffsetDateTime endExclusive
     );
-}
\ No newline at end of file
+
+    // Listing rows are projected straight into AppointmentResponse with one join, so no User (and none of its
+    // eager roles/address/emergency contact) is ever hydrated for a list.
+    String RESPONSE_PROJECTION = "select new com.osu.HealthApp.dtos.AppointmentResponse(" +
+            "a.id, p.id, d.id, concat(p.firstName, ' ', p.lastName), concat(d.firstName, ' ', d.lastName), " +
+            "a.startTime, a.endTime, a.reason, a.seriesId) " +
+            "from Appointment a join a.patient p join a.doctor d ";
+
+    // Keyset pages ordered by (startTime, id). Callers pass sentinel bounds instead of nulls so the SQL stays static.
+    String PAGE_FILTER = "a.startTime >= :from and a.startTime < :to " +
+            "and (a.startTime > :afterStart or (a.startTime = :afterStart and a.id > :afterId)) " +
+            "order by a.startTime, a.id";
+
+    @Query(RESPONSE_PROJECTION + "where " + PAGE_FILTER)
+    List<AppointmentResponse> findPage(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to,
+                               @Param("afterStart") OffsetDateTime afterStart, @Param("afterId") Long afterId,
+                               Limit limit);
+
+    @Query(RESPONSE_PROJECTION + "where p.id = :patientId and " + PAGE_FILTER)
+    List<AppointmentResponse> findPageByPatientId(@Param("patientId") Long patientId,
+                                          @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to,
+                                          @Param("afterStart") OffsetDateTime afterStart, @Param("afterId") Long afterId,
+                                          Limit limit);
+
+    @Query(RESPONSE_PROJECTION + "where d.id = :doctorId and " + PAGE_FILTER)
+    List<AppointmentResponse> findPageByDoctorId(@Param("doctorId") Long doctorId,
+                                         @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to,
+                                         @Param("afterStart") OffsetDateTime afterStart, @Param("afterId") Long afterId,
+                                         Limit limit);
+
+    // rows per round trip when streaming an export; big enough to amortize latency, small enough to stay flat on heap
+    String EXPORT_FETCH_SIZE = "1000";
+
+    /**
+     * Every appointment starting in [from, to) for export, read through a cursor {@code EXPORT_FETCH_SIZE} rows at
+     * a time. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(RESPONSE_PROJECTION + "where a.startTime >= :from and a.startTime < :to order by a.startTime, a.id")
+    Stream<AppointmentResponse> streamForExport(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+    /** Just the times of a doctor's bookings, no patient/doctor hydration. Feeds DoctorScheduleIndex. */
+    @Query("select a.id as id, a.startTime as startTime, a.endTime as endTime from Appointment a " +
+            "where a.doctor.id = :doctorId and a.startTime >= :from and a.startTime < :to")
+    List<BookedSlot> findBookedSlots(@Param("doctorId") Long doctorId,
+                                     @Param("from") OffsetDateTime fromInclusive,
+                                     @Param("to") OffsetDateTime toExclusive);
+
+    interface BookedSlot {
+        Long getId();
+        OffsetDateTime getStartTime();
+        OffsetDateTime getEndTime();
+    }
+}
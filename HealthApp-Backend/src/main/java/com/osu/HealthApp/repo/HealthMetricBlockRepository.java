@@ -0,0 +1,27 @@
+package com.osu.HealthApp.repo;
+
+import com.osu.HealthApp.models.HealthMetricBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HealthMetricBlockRepository extends JpaRepository<HealthMetricBlock, Long> {
+
+    Optional<HealthMetricBlock> findByUserIdAndMonthStart(Long userId, Instant monthStart);
+
+    /** Encoded months overlapping [from, to), oldest first; {@code fromMonth} is the start of from's month. */
+    @Query("select b.monthStart as monthStart, b.data as data from HealthMetricBlock b " +
+            "where b.user.id = :userId and b.monthStart >= :fromMonth and b.monthStart < :to order by b.monthStart")
+    List<BlockData> findBlocks(@Param("userId") Long userId, @Param("fromMonth") Instant fromMonth, @Param("to") Instant to);
+
+    interface BlockData {
+        Instant getMonthStart();
+        byte[] getData();
+    }
+}
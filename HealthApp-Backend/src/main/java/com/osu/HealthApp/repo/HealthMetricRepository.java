@@ -1,10 +1,58 @@
 package com.osu.HealthApp.repo;
 
 import com.osu.HealthApp.models.HealthMetric;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface HealthMetricRepository extends JpaRepository<HealthMetric, Long> {
 
+    /**
+     * A user's readings in [from, to), oldest first, walked by idx_health_metrics_user_time and read through a
+     * cursor. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select m.recordedAt as recordedAt, m.weight as weight, m.height as height, m.bmi as bmi " +
+            "from HealthMetric m where m.user.id = :userId and m.recordedAt >= :from and m.recordedAt < :to " +
+            "order by m.recordedAt")
+    Stream<Reading> streamReadings(@Param("userId") Long userId, @Param("from") Instant from, @Param("to") Instant to);
+
+    /** Users with hot readings before {@code before}, by id after {@code afterId}; feeds the compactor. */
+    @Query("select distinct m.user.id from HealthMetric m where m.recordedAt < :before and m.user.id > :afterId order by m.user.id")
+    List<Long> findUserIdsWithReadingsBefore(@Param("before") Instant before, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("select min(m.recordedAt) from HealthMetric m where m.user.id = :userId and m.recordedAt >= :from and m.recordedAt < :before")
+    Instant findFirstRecordedAt(@Param("userId") Long userId, @Param("from") Instant from, @Param("before") Instant before);
+
+    @Query("select m.id as id, m.recordedAt as recordedAt, m.weight as weight, m.height as height, m.bmi as bmi " +
+            "from HealthMetric m where m.user.id = :userId and m.recordedAt >= :from and m.recordedAt < :to " +
+            "order by m.recordedAt, m.id")
+    List<StoredReading> findReadings(@Param("userId") Long userId, @Param("from") Instant from, @Param("to") Instant to);
+
+    @Modifying
+    @Query("delete from HealthMetric m where m.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface Reading {
+        Instant getRecordedAt();
+        Double getWeight();
+        Double getHeight();
+        Double getBmi();
+    }
+
+    interface StoredReading extends Reading {
+        Long getId();
+    }
 }
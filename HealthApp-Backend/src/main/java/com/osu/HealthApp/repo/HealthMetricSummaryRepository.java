@@ -0,0 +1,20 @@
+package com.osu.HealthApp.repo;
+
+import com.osu.HealthApp.models.HealthMetricSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface HealthMetricSummaryRepository extends JpaRepository<HealthMetricSummary, Long> {
+
+    /** Row-locks the summary so concurrent inserts for one user apply their updates one after another. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from HealthMetricSummary s where s.userId = :userId")
+    Optional<HealthMetricSummary> findForUpdate(@Param("userId") Long userId);
+}
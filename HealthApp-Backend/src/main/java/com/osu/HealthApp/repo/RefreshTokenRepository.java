@@ -1,12 +1,16 @@
 package com.osu.HealthApp.repo;
 
 import com.osu.HealthApp.models.RefreshToken;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
@@ -17,4 +21,32 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Stri
     @Transactional
     @Query("update RefreshToken rt set rt.revoked = true where rt.user.id = :userId and rt.revoked = false")
     void revokeAllByUserId(@Param("userId") Long userId);
+
+    /** Tokens a refresh can still use for this user. */
+    @Query("select count(rt) from RefreshToken rt where rt.user.id = :userId and rt.revoked = false and rt.expiresAt > :now")
+    long countLive(@Param("userId") Long userId, @Param("now") Instant now);
+
+    /** Tokens a refresh can still use, across all users. */
+    @Query("select count(rt) from RefreshToken rt where rt.revoked = false and rt.expiresAt > :now")
+    long countAllLive(@Param("now") Instant now);
+
+    /** Live tokens for the user, oldest expiry first. */
+    @Query("select rt.jti from RefreshToken rt where rt.user.id = :userId and rt.revoked = false and rt.expiresAt > :now order by rt.expiresAt")
+    List<String> findLiveJtis(@Param("userId") Long userId, @Param("now") Instant now, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("update RefreshToken rt set rt.revoked = true where rt.jti in :jtis")
+    void revokeByJtiIn(@Param("jtis") Collection<String> jtis);
+
+    @Query("select rt.jti from RefreshToken rt where rt.expiresAt < :now")
+    List<String> findExpiredJtis(@Param("now") Instant now, Limit limit);
+
+    @Query("select rt.jti from RefreshToken rt where rt.revoked = true")
+    List<String> findRevokedJtis(Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken rt where rt.jti in :jtis")
+    int deleteByJtiIn(@Param("jtis") Collection<String> jtis);
 }
\ No newline at end of file
@@ -1,14 +1,86 @@
 package com.osu.HealthApp.repo;
 
+import com.osu.HealthApp.dtos.AdminUserResponse;
 import com.osu.HealthApp.models.Role;
 import com.osu.HealthApp.models.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
     Optional<User> findByEmail(String email);
 
+    /** Row-locks the user; serializes creating per-user rows that have no row of their own to lock yet. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findForUpdate(@Param("id") Long id);
+
+    /** Swaps the password hash only if it is still {@code expectedHash}; returns the rows updated. */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.passwordHash = :newHash where u.id = :id and u.passwordHash = :expectedHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("expectedHash") String expectedHash, @Param("newHash") String newHash);
+
+    interface AuthEpoch {
+        Long getId();
+        long getAuthEpoch();
+    }
+
+    @Query("select u.id as id, u.authEpoch as authEpoch from User u where u.authEpoch > 0")
+    List<AuthEpoch> findBumpedAuthEpochs();
+
     List<User> findByRolesContaining(Role role);
+
+    /**
+     * Admin listing: one row per user with roles aggregated in SQL, keyset-paged by id. Only the listed columns
+     * are read; address, emergency contact and the role collection are never hydrated.
+     * {@code anyRole} disables the role filter, {@code enabled} holds the allowed flag values, and
+     * {@code prefix} is a LIKE pattern (already escaped and lower-cased, ending in %) matched against email and names.
+     */
+    @Query("select new com.osu.HealthApp.dtos.AdminUserResponse(u.id, u.email, u.firstName, u.lastName, u.enabled, " +
+            "listagg(cast(r as String), ',') within group (order by cast(r as String))) " +
+            "from User u left join u.roles r " +
+            "where u.id > :afterId and u.enabled in :enabled " +
+            "and (lower(u.email) like :prefix escape '!' or lower(u.firstName) like :prefix escape '!' or lower(u.lastName) like :prefix escape '!') " +
+            "and (:anyRole = true or exists (select 1 from User f join f.roles fr where f.id = u.id and fr = :role)) " +
+            "group by u.id, u.email, u.firstName, u.lastName, u.enabled " +
+            "order by u.id")
+    List<AdminUserResponse> findAdminPage(@Param("afterId") long afterId,
+                                          @Param("enabled") Collection<Boolean> enabled,
+                                          @Param("prefix") String prefix,
+                                          @Param("anyRole") boolean anyRole,
+                                          @Param("role") Role role,
+                                          Limit limit);
+
+    interface EmailRole {
+        String getEmail();
+        Role getRole();
+    }
+
+    /** (email, role) pairs for every user; users without roles come back once with a null role. */
+    @Query("select u.email as email, r as role from User u left join u.roles r")
+    List<EmailRole> findAllEmailRoles();
+
+    /** Which of {@code ids} exist, without hydrating the users. */
+    @Query("select u.id from User u where u.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /** Ids of every user holding {@code role}, without hydrating the users. */
+    @Query("select u.id from User u join u.roles r where r = :role")
+    List<Long> findIdsByRole(@Param("role") Role role);
+
+    /** Which of {@code ids} hold {@code role}, without hydrating the users. */
+    @Query("select u.id from User u join u.roles r where u.id in :ids and r = :role")
+    Set<Long> findIdsWithRole(@Param("ids") Collection<Long> ids, @Param("role") Role role);
 }
\ No newline at end of file
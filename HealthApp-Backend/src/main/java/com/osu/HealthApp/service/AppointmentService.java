@@ -1,32 +1,62 @@
 package com.osu.HealthApp.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.osu.HealthApp.component.AuthenticatedUser;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.osu.HealthApp.dtos.AppointmentFilter;
+import com.osu.HealthApp.dtos.AppointmentPage;
 import com.osu.HealthApp.dtos.AppointmentRequest;
 import com.osu.HealthApp.dtos.AppointmentResponse;
+import com.osu.HealthApp.dtos.AppointmentSeriesRequest;
 import com.osu.HealthApp.dtos.AppointmentNoteResultRequest;
+import com.osu.HealthApp.dtos.AvailableSlotResponse;
+import com.osu.HealthApp.dtos.BulkAppointmentResult;
 import com.osu.HealthApp.dtos.DoctorAvailabilityResponse;
 import com.osu.HealthApp.models.Appointment;
+import com.osu.HealthApp.models.AppointmentClinicalText;
+import com.osu.HealthApp.models.AppointmentStatus;
 import com.osu.HealthApp.models.User;
 import com.osu.HealthApp.models.Role;
+import com.osu.HealthApp.repo.AppointmentClinicalTextRepository;
+import com.osu.HealthApp.repo.AppointmentClinicalTextRepository.ClinicalTextView;
 import com.osu.HealthApp.repo.AppointmentRepository;
 import com.osu.HealthApp.repo.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
+    private final AppointmentClinicalTextRepository clinicalTextRepository;
     private final UserRepository userRepository;
+    private final DoctorScheduleIndex scheduleIndex;
+    private final DoctorBookingLocks bookingLocks;
+    @Qualifier("availabilitySearchExecutor")
+    private final ThreadPoolTaskExecutor searchExecutor;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     // Scheduling rules
     private static final int SLOT_MINUTES = 60;
@@ -35,6 +65,22 @@ public class AppointmentService {
     private static final LocalTime DAY_START = LocalTime.of(9, 0);
     private static final LocalTime DAY_END = LocalTime.of(17, 0);
     private static final ZoneId CLINIC_ZONE = ZoneId.of("America/New_York");
+    private static final int MAX_AVAILABILITY_DAYS = 31;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int SEARCH_LOAD_CHUNK_DAYS = 7;
+
+    // Listing pages
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final OffsetDateTime MIN_TIME = OffsetDateTime.parse("1900-01-01T00:00:00Z");
+    private static final OffsetDateTime MAX_TIME = OffsetDateTime.parse("9999-12-31T00:00:00Z");
+
+    // Bulk create
+    private static final int MAX_BULK_ITEMS = 5000;
+    private static final int BULK_BATCH_SIZE = 100;
+
+    // Recurring series
+    private static final int MAX_SERIES_OCCURRENCES = 104;
 
     @Transactional
     public AppointmentResponse createAppointment(AppointmentRequest request) {
@@ -77,6 +123,7 @@ public class AppointmentService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Appointment must be exactly " + SLOT_MINUTES + " minutes long");
         }
 
+        bookingLocks.lockUntilCompletion(doctor.getId());
         ensureDoctorSlotFitsPolicy(doctor.getId(), start, end, null);
 
         Appointment appointment = new Appointment();
@@ -86,7 +133,132 @@ public class AppointmentService {
         appointment.setEndTime(end);
         appointment.setReason(request.getReason());
 
-        return toResponse(appointmentRepository.save(appointment));
+        Appointment saved = appointmentRepository.save(appointment);
+        afterCommit(() -> scheduleIndex.put(doctor.getId(), saved.getId(), start, end));
+        return toResponse(saved);
+    }
+
+    /**
+     * Staff-only bulk create (migrations, rebooking after a doctor's leave). Every item is validated in memory,
+     * users are resolved with two id-only queries, and conflicts are checked against the schedule index and
+     * against earlier items of the same batch. Accepted items are inserted in JDBC batches. Items are judged
+     * independently: one bad item doesn't fail the others.
+     */
+    @Transactional
+    public List<BulkAppointmentResult> createAppointments(List<AppointmentRequest> requests) {
+        if (!isStaff()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "This action is restricted to staff members.");
+        }
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BULK_ITEMS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Between 1 and " + MAX_BULK_ITEMS + " appointments are required");
+        }
+
+        BulkAppointmentResult[] results = new BulkAppointmentResult[requests.size()];
+        List<Integer> pending = new ArrayList<>();
+        Set<Long> userIds = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String error = shapeError(requests.get(i));
+            if (error != null) {
+                results[i] = new BulkAppointmentResult(i, HttpStatus.BAD_REQUEST.value(), null, error);
+            } else {
+                pending.add(i);
+                userIds.add(requests.get(i).getPatientId());
+                userIds.add(requests.get(i).getDoctorId());
+            }
+        }
+
+        Set<Long> existing = userIds.isEmpty() ? Set.of() : userRepository.findExistingIds(userIds);
+        Set<Long> doctors = userIds.isEmpty() ? Set.of() : userRepository.findIdsWithRole(userIds, Role.DOCTOR);
+        pending.removeIf(i -> {
+            AppointmentRequest r = requests.get(i);
+            String error = !existing.contains(r.getPatientId()) ? "Invalid patientId"
+                    : !doctors.contains(r.getDoctorId()) ? "Invalid doctorId" : null;
+            if (error != null) {
+                results[i] = new BulkAppointmentResult(i, HttpStatus.BAD_REQUEST.value(), null, error);
+            }
+            return error != null;
+        });
+
+        // Lock every doctor involved (in stripe order), then warm the index with one range load per doctor.
+        Map<Long, long[]> spans = new HashMap<>();
+        for (int i : pending) {
+            AppointmentRequest r = requests.get(i);
+            long[] span = spans.computeIfAbsent(r.getDoctorId(), k -> new long[]{Long.MAX_VALUE, Long.MIN_VALUE});
+            span[0] = Math.min(span[0], DoctorScheduleIndex.startMinute(r.getStartTime()));
+            span[1] = Math.max(span[1], DoctorScheduleIndex.endMinute(r.getEndTime()));
+        }
+        bookingLocks.lockUntilCompletion(spans.keySet());
+        spans.forEach((doctorId, span) -> scheduleIndex.ensureLoaded(doctorId, span[0] - 24 * 60, span[1] + GAP_MINUTES));
+
+        Map<Long, TreeMap<Long, Long>> acceptedByDoctor = new HashMap<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i : pending) {
+            AppointmentRequest r = requests.get(i);
+            long start = DoctorScheduleIndex.startMinute(r.getStartTime());
+            long end = DoctorScheduleIndex.endMinute(r.getEndTime());
+            TreeMap<Long, Long> taken = acceptedByDoctor.computeIfAbsent(r.getDoctorId(), k -> new TreeMap<>());
+            if (!scheduleIndex.isFree(r.getDoctorId(), start, end, GAP_MINUTES, null)) {
+                results[i] = new BulkAppointmentResult(i, HttpStatus.CONFLICT.value(), null,
+                        "Doctor not available: Slot conflicts with another appointment's buffer");
+            } else if (overlapsAccepted(taken, start, end)) {
+                results[i] = new BulkAppointmentResult(i, HttpStatus.CONFLICT.value(), null,
+                        "Doctor not available: Slot conflicts with another appointment in this batch");
+            } else {
+                taken.put(start, end);
+                accepted.add(i);
+            }
+        }
+
+        // Sequence ids mean persist() doesn't need to round-trip, so Hibernate can group the inserts.
+        entityManager.unwrap(Session.class).setJdbcBatchSize(BULK_BATCH_SIZE);
+        List<Appointment> created = new ArrayList<>(accepted.size());
+        for (int n = 0; n < accepted.size(); n++) {
+            int i = accepted.get(n);
+            AppointmentRequest r = requests.get(i);
+            Appointment appointment = new Appointment();
+            appointment.setPatient(userRepository.getReferenceById(r.getPatientId()));
+            appointment.setDoctor(userRepository.getReferenceById(r.getDoctorId()));
+            appointment.setStartTime(r.getStartTime());
+            appointment.setEndTime(r.getEndTime());
+            appointment.setReason(r.getReason());
+            entityManager.persist(appointment);
+            created.add(appointment);
+            results[i] = new BulkAppointmentResult(i, HttpStatus.CREATED.value(), appointment.getId(), null);
+            if ((n + 1) % BULK_BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+
+        afterCommit(() -> {
+            for (int n = 0; n < created.size(); n++) {
+                AppointmentRequest r = requests.get(accepted.get(n));
+                scheduleIndex.put(r.getDoctorId(), created.get(n).getId(), r.getStartTime(), r.getEndTime());
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /** Same checks createAppointment makes before touching the DB, as an error message instead of an exception. */
+    private static String shapeError(AppointmentRequest r) {
+        if (r == null) return "appointment is required";
+        if (r.getPatientId() == null) return "patientId is required";
+        if (r.getDoctorId() == null) return "doctorId is required";
+        if (r.getPatientId().equals(r.getDoctorId())) return "a patient cannot be their own doctor";
+        if (r.getStartTime() == null || r.getEndTime() == null) return "startTime and endTime are required";
+        if (!Duration.between(r.getStartTime().toInstant(), r.getEndTime().toInstant()).equals(Duration.ofMinutes(SLOT_MINUTES))) {
+            return "Appointment must be exactly " + SLOT_MINUTES + " minutes long";
+        }
+        return null;
+    }
+
+    /** {@code taken} holds start -> end of mutually compatible bookings, so only the neighbours can clash. */
+    private static boolean overlapsAccepted(TreeMap<Long, Long> taken, long start, long end) {
+        var before = taken.floorEntry(start);
+        var after = taken.ceilingEntry(start);
+        return (before != null && before.getValue() + GAP_MINUTES > start)
+                || (after != null && after.getKey() - GAP_MINUTES < end);
     }
 
     @Transactional
@@ -116,61 +288,68 @@ public class AppointmentService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Appointment must be exactly " + SLOT_MINUTES + " minutes long");
         }
 
+        bookingLocks.lockUntilCompletion(appointment.getDoctor().getId());
         ensureDoctorSlotFitsPolicy(appointment.getDoctor().getId(), start, end, appointmentId);
 
         appointment.setStartTime(start);
         appointment.setEndTime(end);
         appointment.setReason(request.getReason());
 
-        return toResponse(appointmentRepository.save(appointment));
+        Appointment saved = appointmentRepository.save(appointment);
+        afterCommit(() -> scheduleIndex.put(saved.getDoctor().getId(), saved.getId(), start, end));
+        return toResponse(saved);
     }
 	
 	@Transactional
 	public void submitNurseNote(AppointmentNoteResultRequest request) {
-		Appointment appointment = appointmentRepository.findById(request.appointmentId())
+		clinicalTextRepository.findNurseNote(request.appointmentId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Appointment not found"));
 		
-		appointment.setNurseNotes(request.contents());
-		
-		appointmentRepository.save(appointment);
+		clinicalTextFor(request.appointmentId()).setNurseNotes(request.contents());
 	}
 	
 	@Transactional
 	public void submitDoctorResult(AppointmentNoteResultRequest request) {
-		Appointment appointment = appointmentRepository.findById(request.appointmentId())
+		ClinicalTextView appointment = clinicalTextRepository.findResult(request.appointmentId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Appointment not found"));
 		
 		Long me = getCurrentUserIdOrThrow();
-		if (!appointment.getDoctor().getId().equals(me)) {
+		if (!appointment.getDoctorId().equals(me)) {
 			throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only the attending doctor can set an appointment's result");
 		}
 		
-		appointment.setAppointmentResults(request.contents());
-		
-		appointmentRepository.save(appointment);
+		clinicalTextFor(request.appointmentId()).setAppointmentResults(request.contents());
+	}
+	
+	/** Existing clinical text row for the appointment, or a new managed one. */
+	private AppointmentClinicalText clinicalTextFor(Long appointmentId) {
+		return clinicalTextRepository.findById(appointmentId).orElseGet(() -> clinicalTextRepository.save(
+				new AppointmentClinicalText(appointmentRepository.getReferenceById(appointmentId))));
 	}
 	
+	@Transactional(readOnly = true)
 	public String getNurseNote(Long appointmentId) {
-		Appointment appointment = appointmentRepository.findById(appointmentId)
+		ClinicalTextView appointment = clinicalTextRepository.findNurseNote(appointmentId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Appointment not found"));
 		
-		return appointment.getNurseNotes();
+		return appointment.getText();
 	}
 	
+	@Transactional(readOnly = true)
 	public String getAppointmentResult(Long appointmentId) {
-		Appointment appointment = appointmentRepository.findById(appointmentId)
+		ClinicalTextView appointment = clinicalTextRepository.findResult(appointmentId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Appointment not found"));
 		
 		Long me = getCurrentUserIdOrThrow();
 		if (isPatient()) {
-			if (!appointment.getPatient().getId().equals(me)) {
+			if (!appointment.getPatientId().equals(me)) {
 				throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only the patient attending the appointment can view an appointment's result");
 			}
 		} else if (!isStaff()) {
 			throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only authorized users can access appointment results");
 		}
 		
-		return appointment.getAppointmentResults();
+		return appointment.getText();
 	}
 
     @Transactional
@@ -182,44 +361,350 @@ public class AppointmentService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Patients can only delete their own appointments");
         }
         appointmentRepository.delete(appointment);
+        Long doctorId = appointment.getDoctor().getId();
+        afterCommit(() -> scheduleIndex.remove(doctorId, appointmentId));
+    }
+
+    /**
+     * Books every occurrence of a recurring series in one transaction, or none of them. The doctor's bookings for
+     * the whole span are loaded into the schedule index with one range query, and each occurrence goes through the
+     * same buffered check as ensureDoctorSlotFitsPolicy. A 409 lists every clashing occurrence.
+     */
+    @Transactional
+    public List<AppointmentResponse> createAppointmentSeries(AppointmentSeriesRequest request) {
+        Long patientId = isPatient() ? getCurrentUserIdOrThrow() : request.getPatientId();
+        if (patientId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "patientId is required");
+        }
+        if (request.getDoctorId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "doctorId is required");
+        }
+        if (patientId.equals(request.getDoctorId())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "a patient cannot be their own doctor");
+        }
+        if (request.getStartTime() == null || request.getEndTime() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startTime and endTime are required");
+        }
+        if (!Duration.between(request.getStartTime().toInstant(), request.getEndTime().toInstant()).equals(Duration.ofMinutes(SLOT_MINUTES))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Appointment must be exactly " + SLOT_MINUTES + " minutes long");
+        }
+
+        User patient = userRepository.findById(patientId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid patientId"));
+        User doctor = userRepository.findById(request.getDoctorId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid doctorId"));
+        if (!doctor.getRoles().contains(Role.DOCTOR)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid doctorId");
+        }
+
+        List<OffsetDateTime> starts = occurrences(request);
+        bookingLocks.lockUntilCompletion(doctor.getId());
+        List<OffsetDateTime> clashes = clashingStarts(doctor.getId(), starts, List.of());
+        if (!clashes.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Doctor not available on: " + clashes);
+        }
+
+        String seriesId = UUID.randomUUID().toString();
+        List<Appointment> series = new ArrayList<>(starts.size());
+        for (OffsetDateTime start : starts) {
+            Appointment appointment = new Appointment();
+            appointment.setPatient(patient);
+            appointment.setDoctor(doctor);
+            appointment.setStartTime(start);
+            appointment.setEndTime(start.plusMinutes(SLOT_MINUTES));
+            appointment.setReason(request.getReason());
+            appointment.setSeriesId(seriesId);
+            series.add(appointment);
+        }
+        List<Appointment> saved = appointmentRepository.saveAll(series);
+        afterCommit(() -> saved.forEach(a -> scheduleIndex.put(doctor.getId(), a.getId(), a.getStartTime(), a.getEndTime())));
+        return saved.stream().map(this::toResponse).toList();
+    }
+
+    /**
+     * "This and following": moves the given occurrence to the request's start/end and shifts every later occurrence
+     * of its series by the same clinic-local amount (so a weekly 10:00 stays at the same wall-clock time across DST).
+     */
+    @Transactional
+    public List<AppointmentResponse> updateAppointmentAndFollowing(Long appointmentId, AppointmentRequest request) {
+        List<Appointment> following = thisAndFollowing(appointmentId, "update");
+        if (request.getStartTime() == null || request.getEndTime() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startTime and endTime are required");
+        }
+        if (!Duration.between(request.getStartTime().toInstant(), request.getEndTime().toInstant()).equals(Duration.ofMinutes(SLOT_MINUTES))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Appointment must be exactly " + SLOT_MINUTES + " minutes long");
+        }
+
+        Appointment first = following.get(0);
+        LocalDateTime oldLocal = first.getStartTime().atZoneSameInstant(CLINIC_ZONE).toLocalDateTime();
+        LocalDateTime newLocal = request.getStartTime().atZoneSameInstant(CLINIC_ZONE).toLocalDateTime();
+        Duration shift = Duration.between(oldLocal, newLocal);
+
+        List<OffsetDateTime> starts = following.stream()
+                .map(a -> a.getStartTime().atZoneSameInstant(CLINIC_ZONE).toLocalDateTime().plus(shift)
+                        .atZone(CLINIC_ZONE).toOffsetDateTime())
+                .toList();
+        Long doctorId = first.getDoctor().getId();
+        List<Long> movingIds = following.stream().map(Appointment::getId).toList();
+
+        bookingLocks.lockUntilCompletion(doctorId);
+        List<OffsetDateTime> clashes = clashingStarts(doctorId, starts, movingIds);
+        if (!clashes.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Doctor not available on: " + clashes);
+        }
+
+        for (int i = 0; i < following.size(); i++) {
+            Appointment a = following.get(i);
+            a.setStartTime(starts.get(i));
+            a.setEndTime(starts.get(i).plusMinutes(SLOT_MINUTES));
+            a.setReason(request.getReason());
+        }
+        List<Appointment> saved = appointmentRepository.saveAll(following);
+        afterCommit(() -> saved.forEach(a -> scheduleIndex.put(doctorId, a.getId(), a.getStartTime(), a.getEndTime())));
+        return saved.stream().map(this::toResponse).toList();
     }
 
-    public List<AppointmentResponse> getAppointmentsForPatient(Long patientId) {
+    /** "This and following": cancels the given occurrence and every later one in its series. */
+    @Transactional
+    public void deleteAppointmentAndFollowing(Long appointmentId) {
+        List<Appointment> following = thisAndFollowing(appointmentId, "delete");
+        appointmentRepository.deleteAll(following);
+        Long doctorId = following.get(0).getDoctor().getId();
+        List<Long> ids = following.stream().map(Appointment::getId).toList();
+        afterCommit(() -> ids.forEach(id -> scheduleIndex.remove(doctorId, id)));
+    }
+
+    private List<Appointment> thisAndFollowing(Long appointmentId, String action) {
+        Appointment appointment = appointmentRepository.findById(appointmentId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Appointment not found"));
+        if (isPatient() && !isSelf(appointment.getPatient().getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Patients can only " + action + " their own appointments");
+        }
+        if (appointment.getSeriesId() == null) {
+            return List.of(appointment);
+        }
+        return new ArrayList<>(appointmentRepository.findBySeriesIdAndStartTimeGreaterThanEqualOrderByStartTime(
+                appointment.getSeriesId(), appointment.getStartTime()));
+    }
+
+    /** Expands a series request into occurrence start times, stepping in clinic local time. */
+    private static List<OffsetDateTime> occurrences(AppointmentSeriesRequest request) {
+        if (request.getFrequency() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "frequency is required");
+        }
+        if (request.getCount() == null && request.getUntil() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "count or until is required");
+        }
+        int interval = request.getInterval() != null ? request.getInterval() : 1;
+        if (interval < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "interval must be at least 1");
+        }
+        int count = request.getCount() != null ? request.getCount() : MAX_SERIES_OCCURRENCES + 1;
+        if (count < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "count must be at least 1");
+        }
+
+        ZonedDateTime first = request.getStartTime().atZoneSameInstant(CLINIC_ZONE);
+        List<OffsetDateTime> starts = new ArrayList<>();
+        for (int k = 0; starts.size() < count; k++) {
+            ZonedDateTime next = switch (request.getFrequency()) {
+                case DAILY -> first.plusDays((long) k * interval);
+                case WEEKLY -> first.plusWeeks((long) k * interval);
+                case MONTHLY -> first.plusMonths((long) k * interval);
+            };
+            if (request.getUntil() != null && next.toInstant().isAfter(request.getUntil().toInstant())) {
+                break;
+            }
+            if (starts.size() == MAX_SERIES_OCCURRENCES) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A series cannot have more than " + MAX_SERIES_OCCURRENCES + " occurrences");
+            }
+            starts.add(next.toOffsetDateTime());
+        }
+        if (starts.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "series has no occurrences");
+        }
+        return starts;
+    }
+
+    /**
+     * Occurrences that break the buffer rule, checked with one index load spanning the whole series.
+     * Caller holds the doctor's booking lock.
+     */
+    private List<OffsetDateTime> clashingStarts(Long doctorId, List<OffsetDateTime> starts, Collection<Long> excludeIds) {
+        scheduleIndex.ensureLoaded(doctorId,
+                DoctorScheduleIndex.startMinute(starts.get(0)) - 24 * 60,
+                DoctorScheduleIndex.endMinute(starts.get(starts.size() - 1).plusMinutes(SLOT_MINUTES)) + GAP_MINUTES);
+        List<OffsetDateTime> clashes = new ArrayList<>();
+        for (OffsetDateTime start : starts) {
+            long s = DoctorScheduleIndex.startMinute(start);
+            if (!scheduleIndex.isFreeExcluding(doctorId, s, s + SLOT_MINUTES, GAP_MINUTES, excludeIds)) {
+                clashes.add(start);
+            }
+        }
+        return clashes;
+    }
+
+    public AppointmentPage getAppointmentsForPatient(Long patientId, AppointmentFilter filter) {
         if (isPatient() && !isSelf(patientId)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cannot read another patient’s appointments");
         }
-        return appointmentRepository.findByPatientId(patientId).stream().map(this::toResponse).toList();
+        PageQuery q = PageQuery.of(filter);
+        return q.toPage(appointmentRepository.findPageByPatientId(patientId, q.from(), q.to(), q.afterStart(), q.afterId(), q.fetchLimit()));
     }
 
-    public List<AppointmentResponse> getAppointmentsForDoctor(Long doctorId) {
+    public AppointmentPage getAppointmentsForDoctor(Long doctorId, AppointmentFilter filter) {
         if (!isStaff()) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Staff only");
         }
-        return appointmentRepository.findByDoctorId(doctorId).stream().map(this::toResponse).toList();
+        PageQuery q = PageQuery.of(filter);
+        return q.toPage(appointmentRepository.findPageByDoctorId(doctorId, q.from(), q.to(), q.afterStart(), q.afterId(), q.fetchLimit()));
     }
 
     public DoctorAvailabilityResponse getAvailabilityForDoctor(Long doctorId, LocalDate date) {
-        OffsetDateTime dayStartUTC = date.atTime(DAY_START).atZone(CLINIC_ZONE).toOffsetDateTime().withOffsetSameInstant(ZoneOffset.UTC);
-        OffsetDateTime dayEndUTC = date.atTime(DAY_END).atZone(CLINIC_ZONE).toOffsetDateTime().withOffsetSameInstant(ZoneOffset.UTC);
+        return availabilityForDay(doctorId, date);
+    }
 
-        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndStartTimeBetween(doctorId, dayStartUTC, dayEndUTC);
+    /** Availability for every day in [from, to], loading the doctor's bookings for the whole range in one query. */
+    public List<DoctorAvailabilityResponse> getAvailabilityForDoctor(Long doctorId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "to must not be before from");
+        }
+        if (from.plusDays(MAX_AVAILABILITY_DAYS).isBefore(to.plusDays(1))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range cannot exceed " + MAX_AVAILABILITY_DAYS + " days");
+        }
 
-        List<TimeBlock> buffered = new ArrayList<>();
-        for (var appointment : appointments) {
-            buffered.add(new TimeBlock(
-                    appointment.getStartTime().minusMinutes(GAP_MINUTES),
-                    appointment.getEndTime().plusMinutes(GAP_MINUTES))
-            );
+        scheduleIndex.ensureLoaded(doctorId,
+                DoctorScheduleIndex.startMinute(from.atStartOfDay(CLINIC_ZONE).toOffsetDateTime()) - GAP_MINUTES - SLOT_MINUTES,
+                DoctorScheduleIndex.startMinute(to.plusDays(1).atStartOfDay(CLINIC_ZONE).toOffsetDateTime()) + GAP_MINUTES);
+
+        List<DoctorAvailabilityResponse> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            days.add(availabilityForDay(doctorId, date));
+        }
+        return days;
+    }
+
+    /**
+     * The {@code limit} earliest free slots in [from, to) across all doctors (or just {@code doctorIds}).
+     * Each doctor is scanned day by day on the search executor; a doctor stops as soon as its next day starts
+     * after the current limit-th best slot, so the scan ends early once enough earlier slots are known.
+     */
+    public List<AvailableSlotResponse> findFirstAvailableSlots(OffsetDateTime from, OffsetDateTime to, int limit, Collection<Long> doctorIds) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        if (from.plusDays(MAX_AVAILABILITY_DAYS).isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range cannot exceed " + MAX_AVAILABILITY_DAYS + " days");
+        }
+
+        Collection<Long> doctors = doctorIds == null || doctorIds.isEmpty()
+                ? userRepository.findIdsByRole(Role.DOCTOR)
+                : userRepository.findIdsWithRole(doctorIds, Role.DOCTOR);
+
+        long fromMinute = DoctorScheduleIndex.endMinute(from);
+        long toMinute = DoctorScheduleIndex.startMinute(to);
+        LocalDate firstDay = from.atZoneSameInstant(CLINIC_ZONE).toLocalDate();
+        LocalDate lastDay = to.atZoneSameInstant(CLINIC_ZONE).toLocalDate();
+
+        EarliestSlots best = new EarliestSlots(limit);
+        CompletableFuture.allOf(doctors.stream()
+                .map(doctorId -> CompletableFuture.runAsync(
+                        () -> scanDoctor(doctorId, firstDay, lastDay, fromMinute, toMinute, best), searchExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+
+        return best.sorted().stream()
+                .map(slot -> new AvailableSlotResponse(slot.doctorId(),
+                        DoctorScheduleIndex.toDateTime(slot.start()),
+                        DoctorScheduleIndex.toDateTime(slot.start() + SLOT_MINUTES)))
+                .toList();
+    }
+
+    private void scanDoctor(Long doctorId, LocalDate firstDay, LocalDate lastDay, long fromMinute, long toMinute, EarliestSlots best) {
+        for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+            long dayStart = Math.max(fromMinute, clinicMinute(date, DAY_START));
+            long dayEnd = Math.min(toMinute, clinicMinute(date, DAY_END));
+            if (dayStart > best.cutoff()) {
+                return;
+            }
+            if (ChronoUnit.DAYS.between(firstDay, date) % SEARCH_LOAD_CHUNK_DAYS == 0) {
+                // pull a week of bookings at a time so a doctor costs ~1 query per chunk, not per day
+                LocalDate chunkEnd = date.plusDays(SEARCH_LOAD_CHUNK_DAYS);
+                scheduleIndex.ensureLoaded(doctorId, clinicMinute(date, LocalTime.MIN) - GAP_MINUTES - SLOT_MINUTES,
+                        clinicMinute(chunkEnd, LocalTime.MIN) + GAP_MINUTES);
+            }
+            if (dayStart >= dayEnd) {
+                continue; // the window ends before this day's opening hours (or starts after them)
+            }
+            // candidates stay on the clinic's 15-minute grid even when the window starts mid-slot
+            long gridStart = clinicMinute(date, DAY_START);
+            long firstCandidate = gridStart + Math.floorDiv(dayStart - gridStart + STEP_MINUTES - 1, STEP_MINUTES) * STEP_MINUTES;
+            long[] free = scheduleIndex.freeSlotStarts(doctorId, firstCandidate, dayEnd, SLOT_MINUTES, STEP_MINUTES, GAP_MINUTES);
+            for (long start : free) {
+                if (!best.offer(new Slot(doctorId, start))) {
+                    return;
+                }
+            }
         }
+    }
+
+    private static long clinicMinute(LocalDate date, LocalTime time) {
+        return DoctorScheduleIndex.startMinute(date.atTime(time).atZone(CLINIC_ZONE).toOffsetDateTime());
+    }
 
-        List<String> freeSlots = new ArrayList<>();
-        for (OffsetDateTime t = dayStartUTC; !t.plusMinutes(SLOT_MINUTES).isAfter(dayEndUTC); t = t.plusMinutes(STEP_MINUTES)) {
-            OffsetDateTime tEnd = t.plusMinutes(SLOT_MINUTES);
-            OffsetDateTime finalT = t;
-            boolean overlaps = buffered.stream().anyMatch(b -> intervalsOverlap(finalT, tEnd, b.start(), b.end()));
-            if (!overlaps) {
-                freeSlots.add(t.atZoneSameInstant(CLINIC_ZONE).toLocalTime().toString());
+    private record Slot(Long doctorId, long start) {}
+
+    private static final Comparator<Slot> EARLIEST_FIRST = Comparator.comparingLong(Slot::start).thenComparing(Slot::doctorId);
+
+    /** Bounded max-heap holding the {@code limit} earliest slots seen so far, shared by the per-doctor scans. */
+    private static final class EarliestSlots {
+        private final int limit;
+        private final PriorityQueue<Slot> heap;
+        private volatile long cutoff = Long.MAX_VALUE;
+
+        EarliestSlots(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit, EARLIEST_FIRST.reversed());
+        }
+
+        /** Start minute a slot must beat to still make the result. */
+        long cutoff() {
+            return cutoff;
+        }
+
+        /** Returns false once {@code slot} is too late to matter; later slots from the same doctor can be skipped. */
+        synchronized boolean offer(Slot slot) {
+            if (heap.size() == limit) {
+                if (EARLIEST_FIRST.compare(slot, heap.peek()) >= 0) {
+                    return false;
+                }
+                heap.poll();
+            }
+            heap.add(slot);
+            if (heap.size() == limit) {
+                cutoff = heap.peek().start();
             }
+            return true;
+        }
+
+        synchronized List<Slot> sorted() {
+            List<Slot> result = new ArrayList<>(heap);
+            result.sort(EARLIEST_FIRST);
+            return result;
+        }
+    }
+
+    private DoctorAvailabilityResponse availabilityForDay(Long doctorId, LocalDate date) {
+        long dayStart = DoctorScheduleIndex.startMinute(date.atTime(DAY_START).atZone(CLINIC_ZONE).toOffsetDateTime());
+        long dayEnd = DoctorScheduleIndex.startMinute(date.atTime(DAY_END).atZone(CLINIC_ZONE).toOffsetDateTime());
+
+        long[] free = scheduleIndex.freeSlotStarts(doctorId, dayStart, dayEnd, SLOT_MINUTES, STEP_MINUTES, GAP_MINUTES);
+
+        List<String> freeSlots = new ArrayList<>(free.length);
+        for (long minute : free) {
+            freeSlots.add(DoctorScheduleIndex.toDateTime(minute).atZoneSameInstant(CLINIC_ZONE).toLocalTime().toString());
         }
 
         DoctorAvailabilityResponse response = new DoctorAvailabilityResponse();
@@ -229,43 +714,130 @@ public class AppointmentService {
         return response;
     }
 
+    /** Caller must hold the doctor's booking lock (see DoctorBookingLocks) so the answer stays true until commit. */
     private void ensureDoctorSlotFitsPolicy(Long doctorId, OffsetDateTime proposedStart, OffsetDateTime proposedEnd, Long excludeAppointmentId) {
-        OffsetDateTime dayStart = proposedStart.with(LocalTime.MIN);
-        OffsetDateTime dayEnd = proposedStart.with(LocalTime.MAX);
-
-        List<Appointment> sameDayAppointments = appointmentRepository.findByDoctorIdAndStartTimeBetween(doctorId, dayStart, dayEnd);
+        boolean free = scheduleIndex.isFree(doctorId,
+                DoctorScheduleIndex.startMinute(proposedStart), DoctorScheduleIndex.endMinute(proposedEnd),
+                GAP_MINUTES, excludeAppointmentId);
+        if (!free) {
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT,
+                    "Doctor not available: Slot conflicts with another appointment's buffer"
+            );
+        }
+    }
 
-        for (var existing : sameDayAppointments) {
-            if (excludeAppointmentId != null && excludeAppointmentId.equals(existing.getId())) {
-                continue;
-            }
-            OffsetDateTime blockFrom = existing.getStartTime().minusMinutes(GAP_MINUTES);
-            OffsetDateTime blockTo = existing.getEndTime().plusMinutes(GAP_MINUTES);
-
-            if (intervalsOverlap(proposedStart, proposedEnd, blockFrom, blockTo)) {
-                throw new ResponseStatusException(
-                        HttpStatus.CONFLICT,
-                        "Doctor not available: Slot conflicts with another appointment's buffer"
-                );
-            }
+    /** Runs once the surrounding transaction commits (or right away if there is none). Keeps the index in step with the DB. */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
 
-    private static boolean intervalsOverlap(OffsetDateTime aStart, OffsetDateTime aEnd, OffsetDateTime bStart, OffsetDateTime bEnd) {
-        return aStart.toInstant().isBefore(bEnd.toInstant()) && bStart.toInstant().isBefore(aEnd.toInstant());
+    public AppointmentPage getAllAppointments(AppointmentFilter filter) {
+        if (!isStaff()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "This action is restricted to staff members.");
+        }
+        PageQuery q = PageQuery.of(filter);
+        return q.toPage(appointmentRepository.findPage(q.from(), q.to(), q.afterStart(), q.afterId(), q.fetchLimit()));
     }
 
-    public List<AppointmentResponse> getAllAppointments() {
+    public enum ExportFormat { NDJSON, CSV }
+
+    /**
+     * Streams every appointment starting in [from, to) to {@code out}, one row at a time, as newline-delimited JSON
+     * or CSV. Rows come off a DB cursor and are written straight through, so heap use doesn't grow with the range.
+     */
+    @Transactional(readOnly = true)
+    public void exportAppointments(OffsetDateTime from, OffsetDateTime to, ExportFormat format, OutputStream out) throws IOException {
         if (!isStaff()) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "This action is restricted to staff members.");
         }
-        return appointmentRepository.findAll()
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        OffsetDateTime start = from != null ? from : MIN_TIME;
+        OffsetDateTime end = to != null ? to : MAX_TIME;
+
+        ObjectWriter rowWriter = objectMapper.writerFor(AppointmentResponse.class);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            writer.write("id,patientId,doctorId,patientName,doctorName,startTime,endTime,reason\n");
+        }
+        try (Stream<AppointmentResponse> rows = appointmentRepository.streamForExport(start, end)) {
+            for (var it = rows.iterator(); it.hasNext(); ) {
+                AppointmentResponse r = it.next();
+                if (format == ExportFormat.CSV) {
+                    writer.write(r.getId() + "," + r.getPatientId() + "," + r.getDoctorId() + ","
+                            + csv(r.getPatientName()) + "," + csv(r.getDoctorName()) + ","
+                            + r.getStartTime() + "," + r.getEndTime() + "," + csv(r.getReason()));
+                } else {
+                    writer.write(rowWriter.writeValueAsString(r));
+                }
+                writer.write('\n');
+            }
+        }
+        writer.flush();
     }
 
-    private record TimeBlock(OffsetDateTime start, OffsetDateTime end) {}
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * A listing filter resolved to concrete keyset bounds. Missing filters become sentinel times so the repository
+     * queries never deal with nulls. Fetches one extra row to know whether another page exists.
+     * Every listing is paged; without a limit a page holds DEFAULT_PAGE_SIZE rows.
+     */
+    private record PageQuery(OffsetDateTime from, OffsetDateTime to, OffsetDateTime afterStart, Long afterId, int size) {
+
+        static PageQuery of(AppointmentFilter filter) {
+            OffsetDateTime from = filter.from() != null ? filter.from() : MIN_TIME;
+            OffsetDateTime to = filter.to() != null ? filter.to() : MAX_TIME;
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            if (filter.status() == AppointmentStatus.UPCOMING && from.isBefore(now)) from = now;
+            if (filter.status() == AppointmentStatus.PAST && to.isAfter(now)) to = now;
+
+            int size = filter.limit() != null ? filter.limit() : DEFAULT_PAGE_SIZE;
+            if (size < 1 || size > MAX_PAGE_SIZE) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+
+            if (filter.cursor() == null || filter.cursor().isBlank()) {
+                return new PageQuery(from, to, MIN_TIME, 0L, size);
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(filter.cursor()), StandardCharsets.UTF_8).split("\\|");
+                return new PageQuery(from, to, Instant.parse(parts[0]).atOffset(ZoneOffset.UTC), Long.parseLong(parts[1]), size);
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+
+        Limit fetchLimit() {
+            return Limit.of(size + 1);
+        }
+
+        AppointmentPage toPage(List<AppointmentResponse> rows) {
+            boolean more = rows.size() > size;
+            List<AppointmentResponse> items = more ? rows.subList(0, size) : rows;
+            String next = null;
+            if (more) {
+                AppointmentResponse last = items.get(items.size() - 1);
+                String raw = last.getStartTime().toInstant() + "|" + last.getId();
+                next = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            }
+            return new AppointmentPage(items, next);
+        }
+    }
 
     private AppointmentResponse toResponse(Appointment a) {
         AppointmentResponse r = new AppointmentResponse();
@@ -277,6 +849,7 @@ public class AppointmentService {
         r.setStartTime(a.getStartTime());
         r.setEndTime(a.getEndTime());
         r.setReason(a.getReason());
+        r.setSeriesId(a.getSeriesId());
         return r;
     }
 
@@ -297,17 +870,8 @@ public class AppointmentService {
     private boolean isSelf(Long userId) {
         return getCurrentUserIdOrThrow().equals(userId);
     }
-	
-	private User getCurrentUserOrThrow() {
-        var auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || auth.getName() == null) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
-        }
-        return userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
-    }
-	
+
     private Long getCurrentUserIdOrThrow() {
-        return getCurrentUserOrThrow().getId();
+        return AuthenticatedUser.current().getId();
     }
 }
\ No newline at end of file
@@ -2,7 +2,10 @@ package com.osu.HealthApp.service;
 
 import com.osu.HealthApp.component.CookieUtil;
 import com.osu.HealthApp.component.JwtService;
+import com.osu.HealthApp.component.PasswordHasher;
+import com.osu.HealthApp.component.RecentlyRevokedJtis;
 import com.osu.HealthApp.dtos.AuthResponse;
+import com.osu.HealthApp.dtos.LiveRefreshTokens;
 import com.osu.HealthApp.dtos.LoginRequest;
 import com.osu.HealthApp.dtos.RegisterRequest;
 import com.osu.HealthApp.models.Context;
@@ -18,11 +21,11 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -30,6 +33,7 @@ import org.springframework.web.server.ResponseStatusException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -38,14 +42,16 @@ public class AuthService {
 
     private final UserRepository users;
     private final RefreshTokenRepository rts;
-    private final PasswordEncoder encoder;
+    private final PasswordHasher hasher;
     private final JwtService jwt;
     private final CookieUtil cookies;
+    private final RecentlyRevokedJtis revokedJtis;
 
     @Value("${cookie.access-name}") private String accessCookieName;
     @Value("${cookie.refresh-name}") private String refreshCookieName;
     @Value("${jwt.access-ttl-minutes}") private long accessTtlMin;
     @Value("${jwt.refresh-ttl-days}") private long refreshTtlDays;
+    @Value("${auth.refresh.max-live-per-user:0}") private int maxLiveRefreshTokens; // 0: no cap
 
     /** Register: everyone starts as PATIENT. */
     public ResponseEntity<AuthResponse> register(RegisterRequest req) {
@@ -59,7 +65,7 @@ public class AuthService {
         u.setFirstName(req.firstName());
         u.setLastName(req.lastName());
         u.setEmail(email);
-        u.setPasswordHash(encoder.encode(req.password()));
+        u.setPasswordHash(hasher.encode(req.password()));
         u.setEnabled(true);
         u.getRoles().add(Role.PATIENT); // safe default
         users.save(u);
@@ -72,8 +78,12 @@ public class AuthService {
 
         var u = users.findByEmail(email)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Bad credentials"));
-        if (!u.isEnabled() || !encoder.matches(req.password(), u.getPasswordHash())) {
+        if (!u.isEnabled() || !hasher.matches(req.password(), u.getPasswordHash())) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Bad credentials");
+        }
+        if (hasher.needsUpgrade(u.getPasswordHash())) {
+            u.setPasswordHash(hasher.encode(req.password()));
+            users.save(u);
         }
 		if (c.equals(Context.STAFF) && u.getRoles().size() == 1 && u.getRoles().contains(Role.PATIENT)) {
 			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Not staff");
@@ -94,6 +104,9 @@ public class AuthService {
         }
 
         String jti = jws.getPayload().getId();
+        if (revokedJtis.contains(jti)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token revoked/unknown");
+        }
         String email = jws.getPayload().getSubject();
 		Context context = null;
 		try {
@@ -111,10 +124,14 @@ public class AuthService {
         if (!record.getUser().getEmail().equals(email)) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token subject mismatch");
         }
+        if (!record.getUser().isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Account disabled");
+        }
 
         // Rotation
         record.setRevoked(true);
         rts.save(record);
+        revokedJtis.add(jti);
 
         return issueTokens(record.getUser(), context, HttpStatus.OK);
     }
@@ -143,6 +160,7 @@ public class AuthService {
         rt.setUser(u);
         rt.setExpiresAt(Instant.now().plus(Duration.ofDays(refreshTtlDays)));
         rts.save(rt);
+        capLiveRefreshTokens(u);
 
         ResponseCookie accessCookie = cookies.buildAccessCookie(access, Duration.ofMinutes(accessTtlMin));
         ResponseCookie refreshCookie = cookies.buildRefreshCookie(refresh, Duration.ofDays(refreshTtlDays));
@@ -153,6 +171,32 @@ public class AuthService {
                 .body(new AuthResponse(true, u.getRoles()));
     }
 
+    /** The user's live refresh token count. */
+    @Transactional(readOnly = true)
+    public LiveRefreshTokens countLiveRefreshTokens(Long userId) {
+        if (!users.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "user not found");
+        }
+        return new LiveRefreshTokens(userId, rts.countLive(userId, Instant.now()));
+    }
+
+    /**
+     * Opt-in (auth.refresh.max-live-per-user, off by default): each login/refresh adds a session, and beyond the
+     * cap the ones closest to expiry are revoked.
+     */
+    private void capLiveRefreshTokens(User u) {
+        if (maxLiveRefreshTokens <= 0) {
+            return;
+        }
+        Instant now = Instant.now();
+        long excess = rts.countLive(u.getId(), now) - maxLiveRefreshTokens;
+        if (excess > 0) {
+            List<String> oldest = rts.findLiveJtis(u.getId(), now, Limit.of((int) excess));
+            rts.revokeByJtiIn(oldest);
+            oldest.forEach(revokedJtis::add);
+        }
+    }
+
     private String getCookie(HttpServletRequest req, String name) {
         if (req.getCookies() == null) return null;
         return Arrays.stream(req.getCookies())
@@ -0,0 +1,68 @@
+package com.osu.HealthApp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-doctor booking locks. A booking takes its doctor's stripe before the conflict check and keeps it
+ * until the transaction completes, so the check, the insert and the schedule index update happen as one step.
+ * Bookings for doctors on different stripes never wait on each other.
+ */
+@Component
+public class DoctorBookingLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+
+    public DoctorBookingLocks(@Value("${scheduling.lock.stripes:64}") int stripeCount,
+                              @Value("${scheduling.lock.timeout-ms:5000}") long timeoutMillis) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /** Locks the doctor's stripe until the current transaction commits or rolls back. */
+    public void lockUntilCompletion(Long doctorId) {
+        lockStripeUntilCompletion(stripeOf(doctorId));
+    }
+
+    /** Same as {@link #lockUntilCompletion(Long)} for several doctors, taken in stripe order so two callers can't deadlock. */
+    public void lockUntilCompletion(Collection<Long> doctorIds) {
+        doctorIds.stream().mapToInt(this::stripeOf).distinct().sorted().forEach(this::lockStripeUntilCompletion);
+    }
+
+    private void lockStripeUntilCompletion(int stripe) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Doctor booking locks require an active transaction");
+        }
+        ReentrantLock lock = stripes[stripe];
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Scheduling is busy, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Scheduling is busy, please retry");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private int stripeOf(Long doctorId) {
+        return Math.floorMod(Long.hashCode(doctorId) * 0x9E3779B9, stripes.length);
+    }
+}
@@ -0,0 +1,243 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.repo.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of each doctor's booked appointments, keyed by epoch-minute.
+ * Days are loaded lazily from the DB (one query per contiguous run of missing days) and kept in sync by
+ * AppointmentService on create/update/delete, so availability and conflict checks don't hit the DB.
+ * Loaded days expire after a TTL so rows written by another node are eventually picked up.
+ */
+@Component
+@RequiredArgsConstructor
+public class DoctorScheduleIndex {
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    private static final int MAX_LOADED_DAYS = 400; // per doctor, before expired days are pruned
+    // bookings are a fixed hour by policy; looking this far back is plenty and keeps a clinic day inside one UTC day
+    private static final long MAX_BOOKING_MINUTES = 12 * 60;
+
+    private final AppointmentRepository appointmentRepository;
+    private final Map<Long, DoctorSchedule> schedules = new ConcurrentHashMap<>();
+
+    @Value("${scheduling.index.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    /** Make sure every day touching [fromMinute, toMinute) is loaded and fresh. */
+    public void ensureLoaded(Long doctorId, long fromMinute, long toMinute) {
+        scheduleFor(doctorId).ensureLoaded(fromMinute, toMinute);
+    }
+
+    /** True if [startMinute, endMinute) doesn't overlap any booking padded by gapMinutes on both sides. */
+    public boolean isFree(Long doctorId, long startMinute, long endMinute, int gapMinutes, Long excludeAppointmentId) {
+        return isFreeExcluding(doctorId, startMinute, endMinute, gapMinutes,
+                excludeAppointmentId == null ? List.of() : List.of(excludeAppointmentId));
+    }
+
+    /** Same as above, ignoring any of {@code excludeAppointmentIds} (e.g. the occurrences of a series being moved). */
+    public boolean isFreeExcluding(Long doctorId, long startMinute, long endMinute, int gapMinutes, Collection<Long> excludeAppointmentIds) {
+        DoctorSchedule schedule = scheduleFor(doctorId);
+        schedule.ensureLoaded(startMinute - gapMinutes - MAX_BOOKING_MINUTES, endMinute + gapMinutes);
+        return schedule.isFree(startMinute, endMinute, gapMinutes, excludeAppointmentIds);
+    }
+
+    /**
+     * Start minutes of every slotMinutes-long window in [fromMinute, toMinute), stepping by stepMinutes,
+     * that stays clear of all bookings padded by gapMinutes.
+     */
+    public long[] freeSlotStarts(Long doctorId, long fromMinute, long toMinute, int slotMinutes, int stepMinutes, int gapMinutes) {
+        DoctorSchedule schedule = scheduleFor(doctorId);
+        schedule.ensureLoaded(fromMinute - gapMinutes - MAX_BOOKING_MINUTES, toMinute + gapMinutes);
+        return schedule.freeSlotStarts(fromMinute, toMinute, slotMinutes, stepMinutes, gapMinutes);
+    }
+
+    /** Record a committed booking (insert or move). Ignored if its day isn't loaded yet; the next load will see it. */
+    public void put(Long doctorId, Long appointmentId, OffsetDateTime start, OffsetDateTime end) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule != null) {
+            schedule.put(appointmentId, startMinute(start), endMinute(end));
+        }
+    }
+
+    /** Forget a committed booking. */
+    public void remove(Long doctorId, Long appointmentId) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule != null) {
+            schedule.remove(appointmentId);
+        }
+    }
+
+    /** Drop everything cached for a doctor; the next read reloads from the DB. */
+    public void invalidate(Long doctorId) {
+        schedules.remove(doctorId);
+    }
+
+    public static long startMinute(OffsetDateTime t) {
+        return Math.floorDiv(t.toEpochSecond(), 60);
+    }
+
+    /** Rounds up so a booking ending at :30 seconds still blocks that minute. */
+    public static long endMinute(OffsetDateTime t) {
+        return -Math.floorDiv(-t.toEpochSecond(), 60);
+    }
+
+    public static OffsetDateTime toDateTime(long epochMinute) {
+        return Instant.ofEpochSecond(epochMinute * 60).atOffset(ZoneOffset.UTC);
+    }
+
+    private DoctorSchedule scheduleFor(Long doctorId) {
+        return schedules.computeIfAbsent(doctorId, DoctorSchedule::new);
+    }
+
+    private record Booking(long id, long start, long end) {}
+
+    private static final Comparator<Booking> BY_START = Comparator.comparingLong(Booking::start).thenComparingLong(Booking::id);
+
+    private final class DoctorSchedule {
+        private final Long doctorId;
+        private final TreeSet<Booking> bookings = new TreeSet<>(BY_START);
+        private final Map<Long, Booking> byId = new HashMap<>();
+        private final Map<Long, Long> loadedDays = new HashMap<>(); // epoch day -> load time (nanos)
+        private long maxDuration = 0;
+
+        DoctorSchedule(Long doctorId) {
+            this.doctorId = doctorId;
+        }
+
+        synchronized void ensureLoaded(long fromMinute, long toMinute) {
+            long firstDay = Math.floorDiv(fromMinute, MINUTES_PER_DAY);
+            long lastDay = Math.floorDiv(toMinute - 1, MINUTES_PER_DAY);
+            long now = System.nanoTime();
+
+            if (loadedDays.size() > MAX_LOADED_DAYS) {
+                pruneExpired(now);
+            }
+
+            long runStart = -1;
+            for (long day = firstDay; day <= lastDay + 1; day++) {
+                boolean missing = day <= lastDay && !isFresh(day, now);
+                if (missing && runStart < 0) {
+                    runStart = day;
+                } else if (!missing && runStart >= 0) {
+                    load(runStart, day, now);
+                    runStart = -1;
+                }
+            }
+        }
+
+        synchronized boolean isFree(long start, long end, int gap, Collection<Long> excludeIds) {
+            for (Booking b : candidates(start - gap, end + gap)) {
+                if (!excludeIds.isEmpty() && excludeIds.contains(b.id())) continue;
+                if (b.start() - gap < end && start < b.end() + gap) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized long[] freeSlotStarts(long from, long to, int slot, int step, int gap) {
+            // Merge padded bookings into disjoint sorted blocks, then sweep the candidate starts once.
+            long[] blockStart = new long[bookings.size()];
+            long[] blockEnd = new long[bookings.size()];
+            int blocks = 0;
+            for (Booking b : candidates(from - gap, to + gap)) {
+                long s = b.start() - gap;
+                long e = b.end() + gap;
+                if (blocks > 0 && s <= blockEnd[blocks - 1]) {
+                    blockEnd[blocks - 1] = Math.max(blockEnd[blocks - 1], e);
+                } else {
+                    blockStart[blocks] = s;
+                    blockEnd[blocks] = e;
+                    blocks++;
+                }
+            }
+
+            long[] free = new long[(int) Math.max(0, (to - from) / step + 1)];
+            int count = 0;
+            int i = 0;
+            for (long t = from; t + slot <= to; t += step) {
+                while (i < blocks && blockEnd[i] <= t) i++;
+                if (i == blocks || blockStart[i] >= t + slot) {
+                    free[count++] = t;
+                }
+            }
+            return Arrays.copyOf(free, count);
+        }
+
+        synchronized void put(Long id, long start, long end) {
+            remove(id);
+            if (isLoaded(Math.floorDiv(start, MINUTES_PER_DAY))) {
+                add(new Booking(id, start, end));
+            }
+        }
+
+        synchronized void remove(Long id) {
+            Booking old = byId.remove(id);
+            if (old != null) {
+                bookings.remove(old);
+            }
+        }
+
+        /** Bookings whose start could make them overlap [from, to) given the longest booking seen. */
+        private NavigableSet<Booking> candidates(long from, long to) {
+            return bookings.subSet(
+                    new Booking(Long.MIN_VALUE, from - maxDuration, 0), true,
+                    new Booking(Long.MIN_VALUE, to, 0), false);
+        }
+
+        private void load(long fromDay, long toDayExclusive, long now) {
+            long from = fromDay * MINUTES_PER_DAY;
+            long to = toDayExclusive * MINUTES_PER_DAY;
+
+            removeStartingIn(from, to);
+            for (var row : appointmentRepository.findBookedSlots(doctorId, toDateTime(from), toDateTime(to))) {
+                add(new Booking(row.getId(), startMinute(row.getStartTime()), endMinute(row.getEndTime())));
+            }
+            for (long day = fromDay; day < toDayExclusive; day++) {
+                loadedDays.put(day, now);
+            }
+        }
+
+        private void removeStartingIn(long from, long to) {
+            var range = bookings.subSet(new Booking(Long.MIN_VALUE, from, 0), true, new Booking(Long.MIN_VALUE, to, 0), false);
+            range.forEach(b -> byId.remove(b.id()));
+            range.clear();
+        }
+
+        private void add(Booking b) {
+            bookings.add(b);
+            byId.put(b.id(), b);
+            maxDuration = Math.max(maxDuration, b.end() - b.start());
+        }
+
+        private boolean isLoaded(long day) {
+            return isFresh(day, System.nanoTime());
+        }
+
+        private boolean isFresh(long day, long now) {
+            Long loadedAt = loadedDays.get(day);
+            return loadedAt != null && now - loadedAt < ttlSeconds * 1_000_000_000L;
+        }
+
+        private void pruneExpired(long now) {
+            var it = loadedDays.entrySet().iterator();
+            while (it.hasNext()) {
+                var e = it.next();
+                if (now - e.getValue() >= ttlSeconds * 1_000_000_000L) {
+                    long from = e.getKey() * MINUTES_PER_DAY;
+                    removeStartingIn(from, from + MINUTES_PER_DAY);
+                    it.remove();
+                }
+            }
+        }
+    }
+}
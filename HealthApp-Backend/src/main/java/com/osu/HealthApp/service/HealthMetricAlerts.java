@@ -0,0 +1,187 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.dtos.HealthMetricAlert;
+import com.osu.HealthApp.models.HealthMetricSummary;
+import com.osu.HealthApp.models.MetricWindow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Alert rules evaluated against each new reading and the user's rolling window (see HealthMetricSummaries),
+ * so no history is queried. Rules come from metrics.alerts.rules, comma separated:
+ * <ul>
+ *   <li>{@code bmi above 40} / {@code weight below 45}: the reading crosses the limit, i.e. the user's previous
+ *       latest reading was on the other side of it (or there was none);</li>
+ *   <li>{@code bmi change 2 in 7d}: the reading differs by more than 2 from the lowest or highest value of the
+ *       last 7 days (up to the window's 30), while the user's previous latest reading didn't. Weight is compared
+ *       with daily means.</li>
+ * </ul>
+ * Alerts are handed to a bounded in-memory queue once the transaction commits; when the queue is full the oldest
+ * alert is dropped, so the write path never waits on consumers. Staff drain the queue through the alerts endpoint.
+ */
+@Component
+public class HealthMetricAlerts {
+
+    private static final Pattern RULE = Pattern.compile(
+            "(weight|bmi)\\s+(?:(above|below)\\s+([0-9.]+)|(change)\\s+([0-9.]+)\\s+in\\s+(\\d+)d)");
+
+    enum Metric { WEIGHT, BMI }
+
+    enum Kind { ABOVE, BELOW, CHANGE }
+
+    record Rule(String text, Metric metric, Kind kind, double limit, int days) {}
+
+    private final List<Rule> rules;
+    private final BlockingQueue<HealthMetricAlert> queue;
+    private final Counter raised;
+    private final Counter dropped;
+
+    public HealthMetricAlerts(MeterRegistry meters,
+                              @Value("${metrics.alerts.rules:bmi above 40,bmi below 16,bmi change 2 in 7d}") String[] rules,
+                              @Value("${metrics.alerts.queue-capacity:10000}") int capacity) {
+        this.rules = Arrays.stream(rules).map(String::trim).filter(r -> !r.isEmpty()).map(HealthMetricAlerts::parse).toList();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.raised = meters.counter("health.alerts.raised");
+        this.dropped = meters.counter("health.alerts.dropped");
+        Gauge.builder("health.alerts.queue.size", queue, BlockingQueue::size).register(meters);
+    }
+
+    static Rule parse(String text) {
+        Matcher m = RULE.matcher(text.toLowerCase(Locale.ROOT));
+        if (!m.matches()) {
+            throw new IllegalArgumentException("Invalid health alert rule: " + text);
+        }
+        Metric metric = Metric.valueOf(m.group(1).toUpperCase(Locale.ROOT));
+        if (m.group(4) == null) {
+            return new Rule(text, metric, Kind.valueOf(m.group(2).toUpperCase(Locale.ROOT)), Double.parseDouble(m.group(3)), 0);
+        }
+        int days = Integer.parseInt(m.group(6));
+        if (days < 1 || days > MetricWindow.DAYS) {
+            throw new IllegalArgumentException("Change rules can look back 1 to " + MetricWindow.DAYS + " days: " + text);
+        }
+        return new Rule(text, metric, Kind.CHANGE, Double.parseDouble(m.group(5)), days);
+    }
+
+    /**
+     * Checks a reading against the user's summary and window before it is folded into them. Threshold rules only
+     * look at readings newer than the user's latest; a backfilled older reading doesn't cross anything.
+     */
+    public void evaluate(Long userId, HealthMetricSummary before, MetricWindow window,
+                         Instant recordedAt, Double weight, Double bmi, List<HealthMetricAlert> out) {
+        if (rules.isEmpty()) {
+            return;
+        }
+        boolean newest = before.getLatestAt() == null || !recordedAt.isBefore(before.getLatestAt());
+        long day = LocalDate.ofInstant(recordedAt, ZoneOffset.UTC).toEpochDay();
+        MetricWindow.Range range = null;
+        int rangeDays = -1;
+        for (Rule rule : rules) {
+            Double value = rule.metric() == Metric.BMI ? bmi : weight;
+            if (value == null) continue;
+            String name = rule.metric().name().toLowerCase(Locale.ROOT);
+            switch (rule.kind()) {
+                case ABOVE, BELOW -> {
+                    if (!newest) continue;
+                    Double previous = rule.metric() == Metric.BMI ? before.getLatestBmi() : before.getLatestWeight();
+                    if (beyond(rule, value) && (previous == null || !beyond(rule, previous))) {
+                        out.add(alert(userId, rule, String.format(Locale.ROOT, "%s %.2f %s %s", name, value,
+                                rule.kind().name().toLowerCase(Locale.ROOT), format(rule.limit())), value, rule.limit(), recordedAt));
+                    }
+                }
+                case CHANGE -> {
+                    if (rangeDays != rule.days()) {
+                        range = window.range(day, rule.days());
+                        rangeDays = rule.days();
+                    }
+                    Double lo = rule.metric() == Metric.BMI ? range.minBmi() : range.minWeight();
+                    Double hi = rule.metric() == Metric.BMI ? range.maxBmi() : range.maxWeight();
+                    if (lo == null) continue;
+                    boolean rose = value - lo >= hi - value;
+                    double from = rose ? lo : hi;
+                    // fire when the change starts: readings after a jump stay far from the pre-jump low or high
+                    // until it leaves the span, and shouldn't each alert again
+                    Double previous = rule.metric() == Metric.BMI ? before.getLatestBmi() : before.getLatestWeight();
+                    if (Math.abs(value - from) > rule.limit()
+                            && (previous == null || Math.max(previous - lo, hi - previous) <= rule.limit())) {
+                        out.add(alert(userId, rule, String.format(Locale.ROOT, "%s %s from %.2f to %.2f within %dd",
+                                name, rose ? "rose" : "fell", from, value, rule.days()), value, from, recordedAt));
+                    }
+                }
+            }
+        }
+    }
+
+    /** Queues the alerts once the current transaction commits (immediately if there is none). */
+    public void publishAfterCommit(List<HealthMetricAlert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(alerts);
+            return;
+        }
+        List<HealthMetricAlert> pending = List.copyOf(alerts);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(pending);
+            }
+        });
+    }
+
+    /**
+     * Takes up to {@code max} queued alerts, oldest first. If none are queued, waits up to {@code wait} for one.
+     * Each alert is delivered to one caller only.
+     */
+    public List<HealthMetricAlert> poll(int max, Duration wait) throws InterruptedException {
+        List<HealthMetricAlert> out = new ArrayList<>();
+        HealthMetricAlert first = wait.isZero() ? queue.poll() : queue.poll(wait.toMillis(), TimeUnit.MILLISECONDS);
+        if (first != null) {
+            out.add(first);
+            queue.drainTo(out, max - 1);
+        }
+        return out;
+    }
+
+    private void publish(List<HealthMetricAlert> alerts) {
+        for (HealthMetricAlert a : alerts) {
+            raised.increment();
+            while (!queue.offer(a)) {
+                if (queue.poll() != null) {
+                    dropped.increment();
+                }
+            }
+        }
+    }
+
+    private static boolean beyond(Rule rule, double value) {
+        return rule.kind() == Kind.ABOVE ? value > rule.limit() : value < rule.limit();
+    }
+
+    private static HealthMetricAlert alert(Long userId, Rule rule, String message, double value, double reference, Instant at) {
+        return new HealthMetricAlert(userId, rule.text(), message, value, reference, at, Instant.now());
+    }
+
+    private static String format(double v) {
+        return v == Math.rint(v) ? String.valueOf((long) v) : String.valueOf(v);
+    }
+}
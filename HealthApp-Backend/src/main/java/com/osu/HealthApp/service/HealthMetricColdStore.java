@@ -0,0 +1,205 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.models.HealthMetricBlock;
+import com.osu.HealthApp.models.MetricBlockCodec;
+import com.osu.HealthApp.models.MetricBlockCodec.Columns;
+import com.osu.HealthApp.repo.HealthMetricBlockRepository;
+import com.osu.HealthApp.repo.HealthMetricRepository;
+import com.osu.HealthApp.repo.HealthMetricRepository.Reading;
+import com.osu.HealthApp.repo.HealthMetricRepository.StoredReading;
+import com.osu.HealthApp.repo.HealthMetricSummaryRepository;
+import com.osu.HealthApp.repo.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Per-user, per-month compressed blocks holding readings rolled out of health_metrics. Reads see the blocks
+ * and the hot table merged into one time-ordered sequence, so callers don't care where a reading lives.
+ */
+@Component
+@RequiredArgsConstructor
+public class HealthMetricColdStore {
+
+    private static final int DELETE_CHUNK = 1000;
+
+    private final HealthMetricBlockRepository blocks;
+    private final HealthMetricRepository hot;
+    private final HealthMetricSummaryRepository summaryRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Moves the user's hot readings for the month starting at {@code monthStart} into that month's block,
+     * merging with what the block already holds (late device uploads land in the hot table first).
+     * Returns the number of readings moved.
+     */
+    @Transactional
+    public int compactMonth(Long userId, Instant monthStart) {
+        // summary rebuilds read the hot and cold tiers in separate statements; take the lock they hold
+        if (summaryRepository.findForUpdate(userId).isEmpty()) {
+            userRepository.findForUpdate(userId);
+        }
+        List<StoredReading> rows = hot.findReadings(userId, monthStart, nextMonth(monthStart));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        HealthMetricBlock block = blocks.findByUserIdAndMonthStart(userId, monthStart).orElseGet(() -> {
+            HealthMetricBlock b = new HealthMetricBlock();
+            b.setUser(userRepository.getReferenceById(userId));
+            b.setMonthStart(monthStart);
+            return b;
+        });
+        Columns existing = block.getData() != null ? MetricBlockCodec.decode(block.getData()) : null;
+        Columns merged = merge(existing, rows);
+        block.setData(MetricBlockCodec.encode(merged));
+        block.setReadingCount(merged.size());
+        blocks.save(block);
+
+        List<Long> ids = rows.stream().map(StoredReading::getId).toList();
+        for (int i = 0; i < ids.size(); i += DELETE_CHUNK) {
+            hot.deleteByIdIn(ids.subList(i, Math.min(ids.size(), i + DELETE_CHUNK)));
+        }
+        return rows.size();
+    }
+
+    /** Cold readings in [from, to), oldest first. Blocks are decoded one at a time as the iterator advances. */
+    public Iterator<Reading> readings(Long userId, Instant from, Instant to) {
+        Iterator<HealthMetricBlockRepository.BlockData> found = blocks.findBlocks(userId, monthStart(from), to).iterator();
+        return new Iterator<>() {
+            private Columns current;
+            private int next;
+            private Reading pending = advance();
+
+            @Override
+            public boolean hasNext() {
+                return pending != null;
+            }
+
+            @Override
+            public Reading next() {
+                if (pending == null) throw new NoSuchElementException();
+                Reading r = pending;
+                pending = advance();
+                return r;
+            }
+
+            private Reading advance() {
+                while (true) {
+                    while (current != null && next < current.size()) {
+                        Reading r = readingAt(current, next++);
+                        if (!r.getRecordedAt().isBefore(to)) return null;
+                        if (!r.getRecordedAt().isBefore(from)) return r;
+                    }
+                    if (!found.hasNext()) return null;
+                    current = MetricBlockCodec.decode(found.next().getData());
+                    next = 0;
+                }
+            }
+        };
+    }
+
+    /** Two time-ordered sequences as one; on equal times {@code a} comes first. */
+    public static Iterator<Reading> merge(Iterator<? extends Reading> a, Iterator<? extends Reading> b) {
+        PeekingIterator left = new PeekingIterator(a);
+        PeekingIterator right = new PeekingIterator(b);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return left.peek() != null || right.peek() != null;
+            }
+
+            @Override
+            public Reading next() {
+                if (left.peek() == null) return right.take();
+                if (right.peek() == null) return left.take();
+                return right.peek().getRecordedAt().isBefore(left.peek().getRecordedAt()) ? right.take() : left.take();
+            }
+        };
+    }
+
+    public static Instant monthStart(Instant t) {
+        return LocalDate.ofInstant(t, ZoneOffset.UTC).withDayOfMonth(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    public static Instant nextMonth(Instant monthStart) {
+        return LocalDate.ofInstant(monthStart, ZoneOffset.UTC).plusMonths(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private static Columns merge(Columns existing, List<StoredReading> rows) {
+        int old = existing == null ? 0 : existing.size();
+        int n = old + rows.size();
+        long[] micros = new long[n];
+        double[] weight = new double[n];
+        double[] height = new double[n];
+        double[] bmi = new double[n];
+        int i = 0, j = 0;
+        for (int k = 0; k < n; k++) {
+            boolean takeOld = j == rows.size() || (i < old && existing.epochMicros()[i] <= toMicros(rows.get(j).getRecordedAt()));
+            if (takeOld) {
+                micros[k] = existing.epochMicros()[i];
+                weight[k] = existing.weight()[i];
+                height[k] = existing.height()[i];
+                bmi[k] = existing.bmi()[i];
+                i++;
+            } else {
+                StoredReading r = rows.get(j++);
+                micros[k] = toMicros(r.getRecordedAt());
+                weight[k] = orNaN(r.getWeight());
+                height[k] = orNaN(r.getHeight());
+                bmi[k] = orNaN(r.getBmi());
+            }
+        }
+        return new Columns(micros, weight, height, bmi);
+    }
+
+    private static Reading readingAt(Columns c, int i) {
+        long micros = c.epochMicros()[i];
+        Instant at = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1000L);
+        return new ColdReading(at, orNull(c.weight()[i]), orNull(c.height()[i]), orNull(c.bmi()[i]));
+    }
+
+    private static long toMicros(Instant t) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, t);
+    }
+
+    private static double orNaN(Double v) {
+        return v == null ? Double.NaN : v;
+    }
+
+    private static Double orNull(double v) {
+        return Double.isNaN(v) ? null : v;
+    }
+
+    private record ColdReading(Instant recordedAt, Double weight, Double height, Double bmi) implements Reading {
+        @Override public Instant getRecordedAt() { return recordedAt; }
+        @Override public Double getWeight() { return weight; }
+        @Override public Double getHeight() { return height; }
+        @Override public Double getBmi() { return bmi; }
+    }
+
+    private static final class PeekingIterator {
+        private final Iterator<? extends Reading> it;
+        private Reading head;
+
+        PeekingIterator(Iterator<? extends Reading> it) {
+            this.it = it;
+            this.head = it.hasNext() ? it.next() : null;
+        }
+
+        Reading peek() {
+            return head;
+        }
+
+        Reading take() {
+            Reading r = head;
+            head = it.hasNext() ? it.next() : null;
+            return r;
+        }
+    }
+}
@@ -1,27 +1,81 @@
 package com.osu.HealthApp.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.osu.HealthApp.component.AuthenticatedUser;
+import com.osu.HealthApp.dtos.HealthMetricAlert;
+import com.osu.HealthApp.dtos.HealthMetricBatchResult;
+import com.osu.HealthApp.dtos.HealthMetricReading;
+import com.osu.HealthApp.dtos.HealthMetricSeries;
+import com.osu.HealthApp.dtos.HealthMetricSummaryCheck;
+import com.osu.HealthApp.dtos.HealthMetricSummaryResponse;
+import com.osu.HealthApp.dtos.HealthMetricSeries.Aggregate;
+import com.osu.HealthApp.dtos.HealthMetricSeries.Resolution;
+import com.osu.HealthApp.models.Context;
 import com.osu.HealthApp.models.HealthMetric;
 import com.osu.HealthApp.models.User;
 import com.osu.HealthApp.dtos.HealthMetricDto;
 import com.osu.HealthApp.repo.HealthMetricRepository;
 import com.osu.HealthApp.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class HealthMetricService {
 
+    private static final int BATCH_SIZE = 100;
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+    private static final int MAX_ALERTS_PER_POLL = 1000;
+    private static final Duration MAX_ALERT_WAIT = Duration.ofSeconds(30);
+
     private final HealthMetricRepository healthMetricRepository;
+    private final HealthMetricColdStore coldStore;
+    private final HealthMetricSummaries summaries;
+    private final HealthMetricAlerts alerts;
     private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactions;
+
+    @Value("${metrics.batch.max-readings:10000}")
+    private int maxBatchReadings;
 
-    public HealthMetricService(HealthMetricRepository healthMetricRepository, UserRepository userRepository) {
+    @Value("${metrics.series.max-raw-points:5000}")
+    private int maxRawPoints;
+
+    public HealthMetricService(HealthMetricRepository healthMetricRepository, HealthMetricColdStore coldStore,
+                               HealthMetricSummaries summaries, HealthMetricAlerts alerts, UserRepository userRepository,
+                               ObjectMapper objectMapper, EntityManager entityManager, TransactionTemplate transactions) {
         this.healthMetricRepository = healthMetricRepository;
+        this.coldStore = coldStore;
+        this.summaries = summaries;
+        this.alerts = alerts;
         this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactions = transactions;
     }
 
     @Transactional
@@ -45,6 +99,268 @@ public class HealthMetricService {
         m.setHeight(h.doubleValue());
         m.setBmi(bmi.doubleValue());
 
-        return healthMetricRepository.save(m);
+        HealthMetricSummaries.Update summary = summaries.begin(userId);
+        HealthMetric saved = healthMetricRepository.save(m);
+        summary.add(saved.getRecordedAt(), saved.getWeight(), saved.getHeight(), saved.getBmi());
+        summary.save();
+        return saved;
+    }
+
+    /**
+     * {@link #addHealthMetrics(Long, Iterator)} for a request body holding a JSON array or newline-delimited JSON
+     * readings, parsed as it is read.
+     */
+    public HealthMetricBatchResult addHealthMetrics(Long userId, InputStream body) {
+        // bound node by node so a null element is rejected by position like any other invalid reading
+        try (MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class).readValues(body)) {
+            Iterator<HealthMetricReading> readings = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return nodes.hasNext();
+                }
+
+                @Override
+                public HealthMetricReading next() {
+                    JsonNode node = nodes.next();
+                    try {
+                        return node.isNull() ? null : objectMapper.treeToValue(node, HealthMetricReading.class);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            return addHealthMetrics(userId, readings);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed reading batch", e);
+        } catch (RuntimeException e) {
+            // MappingIterator wraps parse errors hit in hasNext()/next()
+            if (e.getCause() instanceof IOException) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed reading batch", e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stores a burst of device readings for one user. Readings are read and validated first with no transaction
+     * open, so a slow upload never holds a DB connection or the user's summary lock; invalid ones are reported by
+     * position and skipped. The rest (at most metrics.batch.max-readings, a few hundred KB) are then inserted in one
+     * short transaction, in JDBC batches (sequence ids, so no round trip per row).
+     */
+    public HealthMetricBatchResult addHealthMetrics(Long userId, Iterator<HealthMetricReading> readings) {
+        checkCanAccess(userId);
+        Instant now = Instant.now();
+        Instant latest = now.plus(MAX_CLOCK_SKEW);
+
+        List<HealthMetricReading> valid = new ArrayList<>();
+        List<HealthMetricBatchResult.Rejected> rejected = new ArrayList<>();
+        int index = 0;
+        for (; readings.hasNext(); index++) {
+            if (index == maxBatchReadings) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "At most " + maxBatchReadings + " readings per batch");
+            }
+            HealthMetricReading r = readings.next();
+            String error = readingError(r, latest);
+            if (error != null) {
+                rejected.add(new HealthMetricBatchResult.Rejected(index, error));
+            } else {
+                valid.add(new HealthMetricReading(r.weight(), r.height(), r.recordedAt() != null ? r.recordedAt() : now));
+            }
+        }
+        if (index == 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one reading is required");
+        }
+        transactions.executeWithoutResult(status -> insertReadings(userId, valid));
+        return new HealthMetricBatchResult(valid.size(), rejected);
+    }
+
+    private void insertReadings(Long userId, List<HealthMetricReading> readings) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "user not found");
+        }
+        HealthMetricSummaries.Update summary = summaries.begin(userId);
+        User user = userRepository.getReferenceById(userId);
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(BATCH_SIZE);
+        for (int n = 0; n < readings.size(); n++) {
+            HealthMetricReading r = readings.get(n);
+            HealthMetric m = new HealthMetric();
+            m.setUser(user);
+            m.setWeight(r.weight());
+            m.setHeight(r.height());
+            m.setBmi(Math.round(r.weight() / (r.height() * r.height()) * 100) / 100.0);
+            m.setRecordedAt(r.recordedAt());
+            entityManager.persist(m);
+            summary.add(m.getRecordedAt(), m.getWeight(), m.getHeight(), m.getBmi());
+            if ((n + 1) % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                user = userRepository.getReferenceById(userId);
+            }
+        }
+        summary.save();
+        entityManager.flush();
+    }
+
+    /**
+     * Latest values, all-time BMI range and 30-day window, read from the maintained summary row. Not read-only:
+     * the first read for a user with no summary yet stores the one it builds.
+     */
+    @Transactional
+    public HealthMetricSummaryResponse getSummary(Long userId) {
+        checkCanAccess(userId);
+        return summaries.get(userId);
+    }
+
+    /** Staff-only: recompute the user's summary from all of their readings. */
+    @Transactional
+    public HealthMetricSummaryResponse rebuildSummary(Long userId) {
+        checkStaff();
+        return summaries.rebuild(userId);
+    }
+
+    /** Staff-only: compare the stored summary with a full recompute. */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public HealthMetricSummaryCheck checkSummary(Long userId) {
+        checkStaff();
+        return summaries.check(userId);
+    }
+
+    /** Staff-only: takes up to {@code max} pending alerts, waiting up to {@code wait} if there are none. */
+    public List<HealthMetricAlert> pollAlerts(int max, Duration wait) {
+        checkStaff();
+        if (max < 1 || max > MAX_ALERTS_PER_POLL) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "max must be between 1 and " + MAX_ALERTS_PER_POLL);
+        }
+        if (wait.isNegative() || wait.compareTo(MAX_ALERT_WAIT) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "wait must be between 0 and " + MAX_ALERT_WAIT.toSeconds() + " seconds");
+        }
+        try {
+            return alerts.poll(max, wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+    }
+
+    private static String readingError(HealthMetricReading r, Instant latest) {
+        if (r == null) return "Reading is required";
+        if (r.weight() == null || !(r.weight() > 0) || r.weight().isInfinite()) return "weight must be > 0";
+        if (r.height() == null || !(r.height() > 0) || r.height().isInfinite()) return "height must be > 0";
+        if (r.recordedAt() != null && r.recordedAt().isAfter(latest)) return "recordedAt is in the future";
+        return null;
+    }
+
+    /**
+     * The user's readings in [from, to) downsampled to {@code resolution}, aggregated in one pass over a cursor,
+     * so years of readings come back as a few hundred points without loading them all. Older months come from
+     * the compressed cold tier and are merged in time order with the hot table; repeatable read keeps a
+     * concurrent compaction from showing a reading twice or not at all. Patients may only read their own
+     * series; staff may read anyone's.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public HealthMetricSeries getSeries(Long userId, Instant from, Instant to, Resolution resolution, Set<Aggregate> aggregates) {
+        checkCanAccess(userId);
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+
+        List<HealthMetricSeries.Point> points = new ArrayList<>();
+        Bucket bucket = null;
+        try (Stream<HealthMetricRepository.Reading> hot = healthMetricRepository.streamReadings(userId, from, to)) {
+            for (var it = HealthMetricColdStore.merge(coldStore.readings(userId, from, to), hot.iterator()); it.hasNext(); ) {
+                HealthMetricRepository.Reading r = it.next();
+                Instant start = bucketStart(r.getRecordedAt(), resolution);
+                if (bucket == null || !bucket.start.equals(start) || resolution == Resolution.RAW) {
+                    if (bucket != null) {
+                        points.add(bucket.toPoint(aggregates));
+                    }
+                    if (resolution == Resolution.RAW && points.size() >= maxRawPoints) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                "More than " + maxRawPoints + " readings in range; use a coarser resolution");
+                    }
+                    bucket = new Bucket(start);
+                }
+                bucket.add(r);
+            }
+        }
+        if (bucket != null) {
+            points.add(bucket.toPoint(aggregates));
+        }
+        return new HealthMetricSeries(resolution, from, to, points);
+    }
+
+    /** Patients may only touch their own metrics; staff may touch anyone's. */
+    private static void checkCanAccess(Long userId) {
+        AuthenticatedUser caller = AuthenticatedUser.current();
+        if (caller.getContext() != Context.STAFF && !caller.getId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only access your own health metrics.");
+        }
+    }
+
+    private static void checkStaff() {
+        if (AuthenticatedUser.current().getContext() != Context.STAFF) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "This action is restricted to staff members.");
+        }
+    }
+
+    private static Instant bucketStart(Instant t, Resolution resolution) {
+        return switch (resolution) {
+            case RAW -> t;
+            case DAY -> t.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> LocalDate.ofInstant(t, ZoneOffset.UTC).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    .atStartOfDay(ZoneOffset.UTC).toInstant();
+            case MONTH -> HealthMetricColdStore.monthStart(t);
+        };
+    }
+
+    /** Running aggregates of one bucket; readings arrive oldest first, so the last one seen is the latest. */
+    private static final class Bucket {
+        private final Instant start;
+        private final Stat weight = new Stat();
+        private final Stat height = new Stat();
+        private final Stat bmi = new Stat();
+        private int count;
+
+        Bucket(Instant start) {
+            this.start = start;
+        }
+
+        void add(HealthMetricRepository.Reading r) {
+            count++;
+            weight.add(r.getWeight());
+            height.add(r.getHeight());
+            bmi.add(r.getBmi());
+        }
+
+        HealthMetricSeries.Point toPoint(Set<Aggregate> aggregates) {
+            return new HealthMetricSeries.Point(start, count, weight.toStats(aggregates), height.toStats(aggregates), bmi.toStats(aggregates));
+        }
+    }
+
+    private static final class Stat {
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double sum;
+        private double last;
+        private int n;
+
+        void add(Double value) {
+            if (value == null) return;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            last = value;
+            n++;
+        }
+
+        HealthMetricSeries.Stats toStats(Set<Aggregate> aggregates) {
+            if (n == 0) return null;
+            return new HealthMetricSeries.Stats(
+                    aggregates.contains(Aggregate.MIN) ? min : null,
+                    aggregates.contains(Aggregate.MAX) ? max : null,
+                    aggregates.contains(Aggregate.AVG) ? sum / n : null,
+                    aggregates.contains(Aggregate.LAST) ? last : null);
+        }
     }
 }
@@ -0,0 +1,178 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.dtos.HealthMetricAlert;
+import com.osu.HealthApp.dtos.HealthMetricSummaryCheck;
+import com.osu.HealthApp.dtos.HealthMetricSummaryResponse;
+import com.osu.HealthApp.models.HealthMetricSummary;
+import com.osu.HealthApp.models.MetricWindow;
+import com.osu.HealthApp.models.User;
+import com.osu.HealthApp.repo.HealthMetricRepository;
+import com.osu.HealthApp.repo.HealthMetricSummaryRepository;
+import com.osu.HealthApp.repo.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.RecordComponent;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Per-user summaries kept current by every insert. Writers take the summary's row lock before inserting
+ * readings, so updates for one user apply one after another and a rebuild or compaction (which take the
+ * same lock) never races an insert. A user without a summary yet gets one built from their full history the
+ * first time it's needed. All methods must run inside the caller's transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class HealthMetricSummaries {
+
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T00:00:00Z");
+    private static final double TOLERANCE = 1e-9;
+
+    private final HealthMetricSummaryRepository summaries;
+    private final HealthMetricRepository hot;
+    private final HealthMetricColdStore coldStore;
+    private final UserRepository userRepository;
+    private final HealthMetricAlerts alerts;
+
+    /** Locks the user's summary (building it first if missing) and returns an accumulator for new readings. */
+    public Update begin(Long userId) {
+        return new Update(userId, lock(userId));
+    }
+
+    /**
+     * Applies readings to a locked summary, running the alert rules on each one against the state before it;
+     * call {@link #save()} once all of them are in. Alerts go out when the transaction commits.
+     */
+    public final class Update {
+        private final Long userId;
+        private final HealthMetricSummary summary;
+        private final MetricWindow window;
+        private final List<HealthMetricAlert> raised = new ArrayList<>();
+
+        private Update(Long userId, HealthMetricSummary summary) {
+            this.userId = userId;
+            this.summary = summary;
+            this.window = MetricWindow.decode(summary.getDailyWindow());
+        }
+
+        public void add(Instant recordedAt, Double weight, Double height, Double bmi) {
+            alerts.evaluate(userId, summary, window, recordedAt, weight, bmi, raised);
+            apply(summary, window, recordedAt, weight, height, bmi);
+        }
+
+        public void save() {
+            summary.setDailyWindow(window.encode());
+            summary.setUpdatedAt(Instant.now());
+            summaries.save(summary);
+            alerts.publishAfterCommit(raised);
+        }
+    }
+
+    /**
+     * The stored summary. A user who has none yet gets it built and saved here, so their history is scanned
+     * once rather than on every read; needs a read-write transaction.
+     */
+    public HealthMetricSummaryResponse get(Long userId) {
+        return toResponse(userId, summaries.findById(userId).orElseGet(() -> lock(userId)));
+    }
+
+    /** Throws the stored summary away and recomputes it from every reading, hot and cold. */
+    public HealthMetricSummaryResponse rebuild(Long userId) {
+        HealthMetricSummary summary = lock(userId);
+        recomputeInto(userId, summary);
+        summaries.save(summary);
+        return toResponse(userId, summary);
+    }
+
+    /** Compares the stored summary with a full recompute, without changing anything. */
+    public HealthMetricSummaryCheck check(Long userId) {
+        HealthMetricSummaryResponse stored = toResponse(userId, summaries.findById(userId).orElseGet(HealthMetricSummary::new));
+        HealthMetricSummary fresh = new HealthMetricSummary();
+        recomputeInto(userId, fresh);
+        HealthMetricSummaryResponse recomputed = toResponse(userId, fresh);
+
+        List<String> differences = new ArrayList<>();
+        try {
+            for (RecordComponent field : HealthMetricSummaryResponse.class.getRecordComponents()) {
+                Object a = field.getAccessor().invoke(stored);
+                Object b = field.getAccessor().invoke(recomputed);
+                boolean same = a instanceof Double x && b instanceof Double y
+                        ? Math.abs(x - y) <= TOLERANCE * Math.max(1, Math.max(Math.abs(x), Math.abs(y)))
+                        : Objects.equals(a, b);
+                if (!same) {
+                    differences.add(field.getName());
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return new HealthMetricSummaryCheck(differences.isEmpty(), differences, stored, recomputed);
+    }
+
+    private HealthMetricSummary lock(Long userId) {
+        return summaries.findForUpdate(userId).orElseGet(() -> {
+            // no row to lock yet: the user row serializes whoever creates it
+            User user = userRepository.findForUpdate(userId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "user not found"));
+            return summaries.findForUpdate(userId).orElseGet(() -> {
+                HealthMetricSummary created = new HealthMetricSummary(user);
+                recomputeInto(userId, created);
+                return summaries.save(created);
+            });
+        });
+    }
+
+    private void recomputeInto(Long userId, HealthMetricSummary summary) {
+        summary.setReadingCount(0);
+        summary.setLatestAt(null);
+        summary.setLatestWeight(null);
+        summary.setLatestHeight(null);
+        summary.setLatestBmi(null);
+        summary.setMinBmi(null);
+        summary.setMaxBmi(null);
+        MetricWindow window = new MetricWindow();
+        try (Stream<HealthMetricRepository.Reading> rows = hot.streamReadings(userId, Instant.EPOCH, END_OF_TIME)) {
+            Iterator<HealthMetricRepository.Reading> it =
+                    HealthMetricColdStore.merge(coldStore.readings(userId, Instant.EPOCH, END_OF_TIME), rows.iterator());
+            while (it.hasNext()) {
+                HealthMetricRepository.Reading r = it.next();
+                apply(summary, window, r.getRecordedAt(), r.getWeight(), r.getHeight(), r.getBmi());
+            }
+        }
+        summary.setDailyWindow(window.encode());
+        summary.setUpdatedAt(Instant.now());
+    }
+
+    private static void apply(HealthMetricSummary s, MetricWindow window,
+                              Instant at, Double weight, Double height, Double bmi) {
+        s.setReadingCount(s.getReadingCount() + 1);
+        if (s.getLatestAt() == null || !at.isBefore(s.getLatestAt())) {
+            s.setLatestAt(at);
+            s.setLatestWeight(weight);
+            s.setLatestHeight(height);
+            s.setLatestBmi(bmi);
+        }
+        if (bmi != null) {
+            s.setMinBmi(s.getMinBmi() == null ? bmi : Math.min(s.getMinBmi(), bmi));
+            s.setMaxBmi(s.getMaxBmi() == null ? bmi : Math.max(s.getMaxBmi(), bmi));
+        }
+        window.add(LocalDate.ofInstant(at, ZoneOffset.UTC).toEpochDay(), weight, bmi);
+    }
+
+    private static HealthMetricSummaryResponse toResponse(Long userId, HealthMetricSummary s) {
+        MetricWindow.View last30 = MetricWindow.decode(s.getDailyWindow()).view(LocalDate.now(ZoneOffset.UTC).toEpochDay());
+        return new HealthMetricSummaryResponse(userId, s.getReadingCount(), s.getLatestAt(),
+                s.getLatestWeight(), s.getLatestHeight(), s.getLatestBmi(), s.getMinBmi(), s.getMaxBmi(),
+                last30.avgWeight(), last30.minBmi(), last30.maxBmi(),
+                last30.weightSlopePerDay() == null ? null : last30.weightSlopePerDay() * 7);
+    }
+}
@@ -0,0 +1,322 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.dtos.DirectPhotoUploadRequest;
+import com.osu.HealthApp.dtos.PhotoUploadStatus;
+import com.osu.HealthApp.dtos.PhotoUploadStatus.State;
+import com.osu.HealthApp.dtos.PresignedPhotoUpload;
+import com.osu.HealthApp.component.ImageVariantGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Profile photo uploads, kept off the request thread and out of any DB transaction: the request spools the
+ * file to a temp file and returns a pollable status; the photoUploadExecutor then uploads it to S3 (multipart
+ * above a size threshold) and records the URL with one short UPDATE. Once the upload is DONE the same worker
+ * renders the small avatar variants and records them too. Statuses are kept in memory per node.
+ * Alternatively the client can PUT the photo straight to S3 with a pre-signed URL and then ask us to complete it,
+ * so the bytes never touch the API nodes.
+ */
+@Slf4j
+@Service
+public class ProfilePhotoService {
+
+    private static final long MIN_PART_BYTES = 5L * 1024 * 1024; // S3's minimum for all but the last part
+
+    private static final String DIRECT_SUFFIX = "-direct";
+
+    private final S3Client s3Client;
+    private final ObjectProvider<S3Presigner> presigner;
+    private final UserService userService;
+    private final ImageVariantGenerator variantGenerator;
+    private final ThreadPoolTaskExecutor executor;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+    @Value("${aws.s3.bucket-name}")
+    private String bucketName;
+
+    @Value("${media.upload.multipart-threshold-bytes:16777216}")
+    private long multipartThreshold;
+
+    @Value("${media.upload.part-size-bytes:8388608}")
+    private long partSize;
+
+    @Value("${media.upload.direct.max-bytes:10485760}")
+    private long directMaxBytes;
+
+    @Value("${media.upload.direct.content-types:image/jpeg,image/png,image/webp}")
+    private List<String> directContentTypes;
+
+    @Value("${media.upload.direct.url-ttl-seconds:300}")
+    private long directUrlTtlSeconds;
+
+    @Value("${media.variants.sizes:64,256}")
+    private int[] variantSizes;
+
+    @Value("${media.upload.status-ttl-minutes:60}")
+    private long statusTtlMinutes;
+
+    private record Upload(Long userId, PhotoUploadStatus status) {}
+
+    public ProfilePhotoService(S3Client s3Client, ObjectProvider<S3Presigner> presigner,
+                               UserService userService, ImageVariantGenerator variantGenerator,
+                               @Qualifier("photoUploadExecutor") ThreadPoolTaskExecutor executor) {
+        this.s3Client = s3Client;
+        this.presigner = presigner;
+        this.userService = userService;
+        this.variantGenerator = variantGenerator;
+        this.executor = executor;
+    }
+
+    /** Spools the file and queues the upload. 503 if the upload queue is full. */
+    public PhotoUploadStatus submit(Long userId, MultipartFile file) {
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only image uploads are allowed");
+        }
+        forgetFinished();
+
+        String safeName = file.getOriginalFilename() != null
+                ? file.getOriginalFilename().replaceAll("\\s+", "_")
+                : "upload";
+        String base = "profile-photos/" + userId + "/" + UUID.randomUUID();
+
+        Path spooled;
+        try {
+            spooled = Files.createTempFile("profile-photo-", ".upload");
+            file.transferTo(spooled);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to receive profile photo", e);
+        }
+
+        PhotoUploadStatus status = new PhotoUploadStatus(UUID.randomUUID().toString(), State.PENDING, urlOf(base + "-" + safeName), null, Instant.now());
+        uploads.put(status.uploadId(), new Upload(userId, status));
+        try {
+            executor.execute(() -> process(userId, status.uploadId(), base, safeName, contentType, spooled));
+        } catch (RejectedExecutionException e) {
+            uploads.remove(status.uploadId());
+            deleteQuietly(spooled);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many uploads in progress, please retry");
+        }
+        return status;
+    }
+
+    /** Signs a short-lived PUT for exactly this content type and length; 400 if either is not allowed. */
+    public PresignedPhotoUpload presignDirect(Long userId, DirectPhotoUploadRequest request) {
+        S3Presigner signer = presigner.getIfAvailable();
+        if (signer == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Direct uploads are not available");
+        }
+        checkDirect(request.getContentType(), request.getContentLength());
+
+        String uploadId = UUID.randomUUID().toString();
+        PresignedPutObjectRequest presigned = signer.presignPutObject(b -> b
+                .signatureDuration(Duration.ofSeconds(directUrlTtlSeconds))
+                .putObjectRequest(p -> p.bucket(bucketName).key(directKey(userId, uploadId))
+                        .contentType(request.getContentType())
+                        .contentLength(request.getContentLength())));
+
+        Map<String, String> headers = new TreeMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase("host")) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedPhotoUpload(uploadId, presigned.url().toExternalForm(), headers, presigned.expiration());
+    }
+
+    /**
+     * Checks the object the client PUT and makes it the user's photo; variants follow in the background.
+     * 409 if nothing was uploaded yet; an object that breaks the limits is deleted and rejected with 400.
+     */
+    public PhotoUploadStatus completeDirect(Long userId, String uploadId) {
+        try {
+            UUID.fromString(uploadId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found");
+        }
+        String key = directKey(userId, uploadId);
+
+        HeadObjectResponse head;
+        try {
+            head = s3Client.headObject(b -> b.bucket(bucketName).key(key));
+        } catch (NoSuchKeyException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Photo has not been uploaded yet");
+        }
+        try {
+            checkDirect(head.contentType(), head.contentLength());
+        } catch (ResponseStatusException e) {
+            s3Client.deleteObject(b -> b.bucket(bucketName).key(key));
+            throw e;
+        }
+
+        forgetFinished();
+        String url = urlOf(key);
+        userService.recordProfilePhoto(userId, url);
+        PhotoUploadStatus status = new PhotoUploadStatus(uploadId, State.DONE, url, null, Instant.now());
+        uploads.put(uploadId, new Upload(userId, status));
+        try {
+            executor.execute(() -> variantsOfStored(userId, url, key));
+        } catch (RejectedExecutionException e) {
+            log.warn("Upload queue full, skipping variants for user {}'s photo", userId);
+        }
+        return status;
+    }
+
+    /** Status of one of the user's uploads; 404 for unknown or someone else's. */
+    public PhotoUploadStatus status(Long userId, String uploadId) {
+        Upload upload = uploads.get(uploadId);
+        if (upload == null || !upload.userId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found");
+        }
+        return upload.status();
+    }
+
+    private void process(Long userId, String uploadId, String base, String safeName, String contentType, Path spooled) {
+        try {
+            String url = urlOf(base + "-" + safeName);
+            try {
+                update(uploadId, State.UPLOADING, null);
+                upload(base + "-" + safeName, contentType, spooled);
+                userService.recordProfilePhoto(userId, url);
+                update(uploadId, State.DONE, null);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Profile photo upload {} for user {} failed: {}", uploadId, userId, e.getMessage());
+                update(uploadId, State.FAILED, "Upload failed");
+                return;
+            }
+            uploadVariants(userId, url, base, spooled);
+        } finally {
+            deleteQuietly(spooled);
+        }
+    }
+
+    private void variantsOfStored(Long userId, String url, String key) {
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile("profile-photo-", ".download");
+            try (InputStream in = s3Client.getObject(b -> b.bucket(bucketName).key(key))) {
+                Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+            }
+            uploadVariants(userId, url, key.substring(0, key.length() - DIRECT_SUFFIX.length()), spooled);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not fetch user {}'s photo for variants: {}", userId, e.getMessage());
+        } finally {
+            if (spooled != null) {
+                deleteQuietly(spooled);
+            }
+        }
+    }
+
+    /** Best effort: without variants clients just fall back to the original URL. */
+    private void uploadVariants(Long userId, String originalUrl, String base, Path original) {
+        try {
+            Map<Integer, String> urls = new TreeMap<>();
+            for (var variant : variantGenerator.generate(original, variantSizes).entrySet()) {
+                String key = base + "-" + variant.getKey() + ".jpg";
+                s3Client.putObject(PutObjectRequest.builder().bucket(bucketName).key(key).contentType("image/jpeg").build(),
+                        RequestBody.fromBytes(variant.getValue()));
+                urls.put(variant.getKey(), urlOf(key));
+            }
+            if (urls.isEmpty()) {
+                log.info("No variants for user {}'s photo: format not decodable", userId);
+                return;
+            }
+            userService.recordProfilePhotoVariants(userId, originalUrl, urls);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Profile photo variants for user {} failed: {}", userId, e.getMessage());
+        }
+    }
+
+    private void upload(String key, String contentType, Path file) throws IOException {
+        long size = Files.size(file);
+        if (size < multipartThreshold) {
+            s3Client.putObject(PutObjectRequest.builder().bucket(bucketName).key(key).contentType(contentType).build(),
+                    RequestBody.fromFile(file));
+            return;
+        }
+
+        String multipartId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName).key(key).contentType(contentType).build()).uploadId();
+        try (InputStream in = Files.newInputStream(file)) {
+            long part = Math.max(partSize, MIN_PART_BYTES);
+            List<CompletedPart> parts = new ArrayList<>();
+            for (int n = 1; (long) (n - 1) * part < size; n++) {
+                byte[] chunk = in.readNBytes((int) Math.min(part, size - (n - 1) * part));
+                String etag = s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucketName).key(key).uploadId(multipartId).partNumber(n).build(),
+                        RequestBody.fromBytes(chunk)).eTag();
+                parts.add(CompletedPart.builder().partNumber(n).eTag(etag).build());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName).key(key).uploadId(multipartId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName).key(key).uploadId(multipartId).build());
+            throw e;
+        }
+    }
+
+    private void checkDirect(String contentType, Long contentLength) {
+        if (contentType == null || !directContentTypes.contains(contentType)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Allowed photo types: " + String.join(", ", directContentTypes));
+        }
+        if (contentLength == null || contentLength <= 0 || contentLength > directMaxBytes) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Photo must be between 1 and " + directMaxBytes + " bytes");
+        }
+    }
+
+    private static String directKey(Long userId, String uploadId) {
+        return "profile-photos/" + userId + "/" + uploadId + DIRECT_SUFFIX;
+    }
+
+    private String urlOf(String key) {
+        return s3Client.utilities().getUrl(b -> b.bucket(bucketName).key(key)).toExternalForm();
+    }
+
+    private void update(String uploadId, State state, String error) {
+        uploads.computeIfPresent(uploadId, (id, u) -> new Upload(u.userId(), u.status().with(state, error)));
+    }
+
+    private void forgetFinished() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(statusTtlMinutes));
+        uploads.values().removeIf(u -> (u.status().state() == State.DONE || u.status().state() == State.FAILED)
+                && u.status().updatedAt().isBefore(cutoff));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.osu.HealthApp.service;
 
+import com.osu.HealthApp.component.AccessTokenEpochs;
+import com.osu.HealthApp.component.AuthenticatedUser;
+import com.osu.HealthApp.component.PasswordHasher;
+import com.osu.HealthApp.dtos.AdminUserPage;
+import com.osu.HealthApp.dtos.AdminUserResponse;
 import com.osu.HealthApp.dtos.PasswordResetDto;
 import com.osu.HealthApp.dtos.UserProfileDto;
 import com.osu.HealthApp.dtos.UserProfileResponseDto;
@@ -9,24 +14,15 @@ import com.osu.HealthApp.models.Role;
 import com.osu.HealthApp.models.User;
 import com.osu.HealthApp.repo.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.S3Utilities;
-import software.amazon.awssdk.services.s3.model.GetUrlRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.S3Exception;
-
-import java.io.IOException;
-import java.util.Set;
-import java.util.UUID;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -35,14 +31,11 @@ import java.util.stream.Stream;
 public class UserService {
 
     private final UserRepository users;
-    private final S3Client s3Client;
-    private final PasswordEncoder passwordEncoder;
-
-    @Value("${aws.s3.bucket-name}")
-    private String bucketName;
+    private final PasswordHasher passwordHasher;
+    private final AccessTokenEpochs tokenEpochs;
 
-    @Value("${aws.region}")
-    private String region;
+    private static final int DEFAULT_USER_PAGE_SIZE = 50;
+    private static final int MAX_USER_PAGE_SIZE = 500;
 
     public User getUserById(Long id) {
         return users.findById(id)
@@ -68,6 +61,7 @@ public class UserService {
         dto.setEmail(user.getEmail());
         dto.setPhoneNumber(user.getPhoneNumber());
         dto.setProfilePhotoUrl(user.getProfilePhotoUrl());
+        dto.setProfilePhotoVariants(new TreeMap<>(user.getProfilePhotoVariants()));
         dto.setDateOfBirth(user.getDateOfBirth());
         dto.setGender(user.getGender());
 
@@ -93,11 +87,52 @@ public class UserService {
         return dto;
     }
 
+    /** Admin user listing filtered by role, enabled flag and a name/email prefix; all filters optional. */
+    @Transactional(readOnly = true)
+    public AdminUserPage listUsers(Role role, Boolean enabled, String prefix, String cursor, Integer limit) {
+        int size = limit != null ? limit : DEFAULT_USER_PAGE_SIZE;
+        if (size < 1 || size > MAX_USER_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_USER_PAGE_SIZE);
+        }
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                afterId = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+        String pattern = prefix == null ? "%"
+                : prefix.trim().toLowerCase(Locale.ROOT).replaceAll("([!%_])", "!$1") + "%";
+        List<Boolean> enabledValues = enabled == null ? List.of(true, false) : List.of(enabled);
+
+        List<AdminUserResponse> rows = users.findAdminPage(afterId, enabledValues, pattern, role == null, role, Limit.of(size + 1));
+        boolean more = rows.size() > size;
+        List<AdminUserResponse> items = more ? rows.subList(0, size) : rows;
+        String next = more
+                ? Base64.getUrlEncoder().withoutPadding().encodeToString(
+                        String.valueOf(items.get(items.size() - 1).id()).getBytes(StandardCharsets.UTF_8))
+                : null;
+        return new AdminUserPage(items, next);
+    }
+
+    /** email -> roles for every user, read as (email, role) pairs without loading User entities. */
+    @Transactional(readOnly = true)
+    public Map<String, Set<Role>> getAllUserRoles() {
+        Map<String, Set<Role>> roles = new HashMap<>();
+        for (UserRepository.EmailRole row : users.findAllEmailRoles()) {
+            Set<Role> userRoles = roles.computeIfAbsent(row.getEmail(), e -> EnumSet.noneOf(Role.class));
+            if (row.getRole() != null) userRoles.add(row.getRole());
+        }
+        return roles;
+    }
+
     @Transactional
     public void disableAccount(String email) {
         User user = users.findByEmail(email)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "No such user"));
         user.setEnabled(false);
+        revokeAccessTokens(user);
         users.save(user);
     }
 
@@ -116,6 +151,7 @@ public class UserService {
         Set<Role> newRoles = Stream.concat(user.getRoles().stream(), roles.stream())
                 .collect(Collectors.toSet());
         user.setRoles(newRoles);
+        revokeAccessTokens(user);
         users.save(user);
         return newRoles;
     }
@@ -131,10 +167,17 @@ public class UserService {
                 .filter(role -> !roles.contains(role))
                 .collect(Collectors.toSet());
         user.setRoles(newRoles);
+        revokeAccessTokens(user);
         users.save(user);
         return newRoles;
     }
 
+    /** Existing access tokens carry stale roles/enabled claims; make the filter reject them. */
+    private void revokeAccessTokens(User user) {
+        user.setAuthEpoch(user.getAuthEpoch() + 1);
+        tokenEpochs.publish(user.getId(), user.getAuthEpoch());
+    }
+
     @Transactional
     public UserProfileResponseDto updateUserProfile(Long userId, UserProfileDto profileDto) {
         User user = getUserById(userId);
@@ -167,66 +210,40 @@ public class UserService {
         return toUserProfileResponseDto(savedUser);
     }
 
-    public User getUserFromAuthentication(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User is not authenticated");
-        }
-        String email = authentication.getName();
-        return users.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+    public Long getUserIdFromAuthentication(Authentication authentication) {
+        return AuthenticatedUser.of(authentication).getId();
     }
 
 
+    /** Points the user at a newly uploaded photo; variants of the old one no longer apply. */
     @Transactional
-    public String updateProfilePhoto(Long userId, MultipartFile file) {
+    public void recordProfilePhoto(Long userId, String url) {
         User user = getUserById(userId);
+        user.setProfilePhotoUrl(url);
+        user.getProfilePhotoVariants().clear();
+    }
 
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only image uploads are allowed");
-        }
-
-        String safeName = file.getOriginalFilename() != null
-                ? file.getOriginalFilename().replaceAll("\\s+", "_")
-                : "upload";
-        String key = "profile-photos/" + userId + "/" + UUID.randomUUID() + "-" + safeName;
-
-        try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .contentType(contentType)
-                    .build();
-
-            s3Client.putObject(putObjectRequest,
-                    RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
-            S3Utilities utils = s3Client.utilities();
-            String fileUrl = utils.getUrl(GetUrlRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .build()).toExternalForm();
-
-            user.setProfilePhotoUrl(fileUrl);
-            users.save(user);
-            return fileUrl;
-
-        } catch (IOException e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Failed to upload profile photo", e);
-        } catch (S3Exception e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "S3 upload failed: " + e.awsErrorDetails().errorMessage(), e);
+    /** Records variants of {@code originalUrl}, unless the user has since switched to another photo. */
+    @Transactional
+    public void recordProfilePhotoVariants(Long userId, String originalUrl, Map<Integer, String> variants) {
+        User user = getUserById(userId);
+        if (originalUrl.equals(user.getProfilePhotoUrl())) {
+            user.getProfilePhotoVariants().putAll(variants);
         }
     }
 
-
-    @Transactional
+    /**
+     * Verifies and hashes outside any transaction (as login does), so waiting on the hash pool never pins a DB
+     * connection. The new hash is written only if the stored one is still the one that was checked.
+     */
     public void updateUserPassword(Long userId, PasswordResetDto passwordDto) {
-        User user = getUserById(userId);
-        if (!passwordEncoder.matches(passwordDto.getCurrentPassword(), user.getPasswordHash())) {
+        String currentHash = getUserById(userId).getPasswordHash();
+        if (!passwordHasher.matches(passwordDto.getCurrentPassword(), currentHash)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Incorrect current password");
         }
-        user.setPasswordHash(passwordEncoder.encode(passwordDto.getNewPassword()));
-        users.save(user);
+        String newHash = passwordHasher.encode(passwordDto.getNewPassword());
+        if (users.updatePasswordHash(userId, currentHash, newHash) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Password was changed meanwhile, please retry");
+        }
     }
 }
\ No newline at end of file
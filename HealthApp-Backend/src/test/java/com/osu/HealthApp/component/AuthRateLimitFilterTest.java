@@ -0,0 +1,108 @@
+package com.osu.HealthApp.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** The per-email bucket has to apply however the body arrives. */
+class AuthRateLimitFilterTest {
+
+    private static final String LOGIN = "/api/auth/loginpatient";
+    private static final int EMAIL_BURST = 5;
+
+    private final AuthRateLimitFilter filter = new AuthRateLimitFilter(new ObjectMapper(), new SimpleMeterRegistry(),
+            60, 1000, 10, EMAIL_BURST, 1000);
+
+    @Test
+    void chunkedBodiesAreStillChargedToTheEmail() throws Exception {
+        for (int i = 0; i < EMAIL_BURST; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse res = send(chunked(login("victim@example.com", i)), chain);
+            assertThat(res.getStatus()).isEqualTo(200);
+            // the controller still sees the whole body
+            assertThat(new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8))
+                    .contains("victim@example.com");
+        }
+        MockFilterChain chain = new MockFilterChain();
+        assertThat(send(chunked(login("Victim@Example.com ", 99)), chain).getStatus()).isEqualTo(429);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void oversizedBodiesAreRefused() throws Exception {
+        String padded = "{\"email\":\"victim@example.com\",\"password\":\"x\",\"pad\":\"" + "x".repeat(20_000) + "\"}";
+
+        MockFilterChain declared = new MockFilterChain();
+        assertThat(send(login(padded, 1), declared).getStatus()).isEqualTo(413);
+        assertThat(declared.getRequest()).isNull();
+
+        MockFilterChain undeclared = new MockFilterChain();
+        assertThat(send(chunked(login(padded, 2)), undeclared).getStatus()).isEqualTo(413);
+        assertThat(undeclared.getRequest()).isNull();
+    }
+
+    @Test
+    void asyncReadersGetTheWholeBodyThenCompletion() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        assertThat(send(login("async@example.com", 1), chain).getStatus()).isEqualTo(200);
+
+        ServletInputStream in = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("data");
+                byte[] buf = new byte[16];
+                for (int n; in.isReady() && !in.isFinished() && (n = in.read(buf)) > 0; ) {
+                    read.write(buf, 0, n);
+                }
+            }
+            @Override public void onAllDataRead() { events.add("done"); }
+            @Override public void onError(Throwable t) { events.add("error"); }
+        });
+
+        assertThat(events).containsExactly("data", "done");
+        assertThat(read.toString(StandardCharsets.UTF_8)).contains("async@example.com");
+        assertThat(in.isFinished()).isTrue();
+    }
+
+    private MockHttpServletResponse send(HttpServletRequest req, MockFilterChain chain) throws Exception {
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(req, res, chain);
+        return res;
+    }
+
+    /** A login from its own address, so only the email bucket can trip. */
+    private static MockHttpServletRequest login(String emailOrBody, int client) {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", LOGIN);
+        req.setRemoteAddr("10.0.0." + client);
+        req.setContentType("application/json");
+        String body = emailOrBody.startsWith("{") ? emailOrBody : "{\"email\":\"" + emailOrBody + "\",\"password\":\"x\"}";
+        req.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return req;
+    }
+
+    /** Same request without a Content-Length, as with Transfer-Encoding: chunked. */
+    private static HttpServletRequest chunked(MockHttpServletRequest req) {
+        return new HttpServletRequestWrapper(req) {
+            @Override public int getContentLength() { return -1; }
+            @Override public long getContentLengthLong() { return -1; }
+        };
+    }
+}
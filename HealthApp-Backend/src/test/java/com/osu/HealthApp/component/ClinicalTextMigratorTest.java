@@ -0,0 +1,86 @@
+package com.osu.HealthApp.component;
+
+import com.osu.HealthApp.models.CompressedTextConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Runs the startup migration against a Postgres-mode H2 database laid out like a pre-migration deployment. */
+class ClinicalTextMigratorTest {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+    private JdbcTemplate jdbc;
+    private ClinicalTextMigrator migrator;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:clinical-text;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table appointment (id bigint primary key, nurse_notes varchar(4000), appointment_results varchar(4000))");
+        jdbc.execute("create table appointment_clinical_text (appointment_id bigint primary key, " +
+                "nurse_notes varbinary(4000), appointment_results varbinary(4000))");
+        jdbc.update("insert into appointment values (1, 'bp 120/80', 'normal'), (2, 'follow up', null), (3, null, null)");
+        migrator = new ClinicalTextMigrator(jdbc, new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("drop all objects");
+    }
+
+    @Test
+    void editsMadeAfterMigratingAreNotConflicts() {
+        migrator.run(null);
+        assertThat(notes(1)).isEqualTo("bp 120/80");
+        assertThat(notes(2)).isEqualTo("follow up");
+        assertThat(jdbc.queryForObject("select count(*) from appointment_clinical_text", Integer.class)).isEqualTo(2);
+
+        // the new code edits the copied text; the legacy columns keep the old value
+        jdbc.update("update appointment_clinical_text set nurse_notes = ? where appointment_id = 1",
+                (Object) converter.convertToDatabaseColumn("bp 135/90, recheck"));
+
+        ReflectionTestUtils.setField(migrator, "dropLegacyColumns", true);
+        migrator.run(null);
+        assertThat(notes(1)).isEqualTo("bp 135/90, recheck");
+        assertThat(legacyColumns()).isZero();
+        assertThat(jdbc.queryForObject("select count(*) from information_schema.tables " +
+                "where table_name = 'appointment_clinical_text_migrated'", Integer.class)).isZero();
+    }
+
+    @Test
+    void divergedTextThatWasNeverCopiedBlocksTheDrop() {
+        // written by the new code before this row was ever migrated
+        jdbc.update("insert into appointment_clinical_text (appointment_id, nurse_notes) values (2, ?)",
+                (Object) converter.convertToDatabaseColumn("rescheduled"));
+        ReflectionTestUtils.setField(migrator, "dropLegacyColumns", true);
+
+        migrator.run(null);
+        assertThat(notes(1)).isEqualTo("bp 120/80");
+        assertThat(notes(2)).isEqualTo("rescheduled");
+        assertThat(legacyColumns()).isEqualTo(2);
+
+        // still unresolved on the next start
+        migrator.run(null);
+        assertThat(legacyColumns()).isEqualTo(2);
+        assertThat(jdbc.queryForList("select appointment_id from appointment_clinical_text_migrated", Long.class))
+                .containsExactly(1L);
+    }
+
+    private String notes(long appointmentId) {
+        return converter.convertToEntityAttribute(jdbc.queryForObject(
+                "select nurse_notes from appointment_clinical_text where appointment_id = ?", byte[].class, appointmentId));
+    }
+
+    private int legacyColumns() {
+        return jdbc.queryForObject("select count(*) from information_schema.columns " +
+                "where table_name = 'appointment' and column_name in ('nurse_notes', 'appointment_results')", Integer.class);
+    }
+}
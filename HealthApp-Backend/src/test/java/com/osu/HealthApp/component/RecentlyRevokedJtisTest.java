@@ -0,0 +1,67 @@
+package com.osu.HealthApp.component;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentlyRevokedJtisTest {
+
+    @Test
+    void keepsTheMostRecentIdsAndForgetsTheOldest() {
+        RecentlyRevokedJtis revoked = new RecentlyRevokedJtis(3);
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+        String c = UUID.randomUUID().toString();
+        String d = UUID.randomUUID().toString();
+
+        revoked.add(a);
+        revoked.add(b);
+        revoked.add(c);
+        revoked.add(a); // already held: doesn't refresh its age or take a slot
+        assertThat(revoked.contains(a)).isTrue();
+
+        revoked.add(d);
+        assertThat(revoked.contains(a)).isFalse();
+        assertThat(revoked.contains(b)).isTrue();
+        assertThat(revoked.contains(c)).isTrue();
+        assertThat(revoked.contains(d)).isTrue();
+
+        revoked.add("not-a-uuid");
+        assertThat(revoked.contains("not-a-uuid")).isFalse();
+        assertThat(revoked.contains(null)).isFalse();
+    }
+
+    @Test
+    void matchesAPlainFifoUnderChurn() {
+        int capacity = 1000;
+        RecentlyRevokedJtis revoked = new RecentlyRevokedJtis(capacity);
+        Deque<String> fifo = new ArrayDeque<>();
+        Set<String> held = new HashSet<>();
+        Set<String> ever = new HashSet<>();
+        Random random = new Random(42);
+
+        // a small id space means re-adds of held and of evicted ids; the index runs near half full, so probe
+        // runs and removal shifts happen throughout
+        for (int i = 0; i < 50_000; i++) {
+            String jti = new UUID(random.nextInt(4000), 0).toString();
+            ever.add(jti);
+            revoked.add(jti);
+            if (held.add(jti)) {
+                fifo.addLast(jti);
+                if (fifo.size() > capacity) {
+                    held.remove(fifo.removeFirst());
+                }
+            }
+            if (i % 1000 == 999) {
+                assertThat(ever).allSatisfy(id -> assertThat(revoked.contains(id)).isEqualTo(held.contains(id)));
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.osu.HealthApp.component;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(60, 5, 100); // one token per second
+        long now = 0;
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("1.2.3.4", now)).isZero();
+        }
+        long wait = limiter.tryAcquire("1.2.3.4", now);
+        assertThat(wait).isEqualTo(SECOND);
+        assertThat(limiter.tryAcquire("5.6.7.8", now)).as("other keys unaffected").isZero();
+
+        assertThat(limiter.tryAcquire("1.2.3.4", now + wait)).isZero();
+        assertThat(limiter.tryAcquire("1.2.3.4", now + wait)).isPositive();
+    }
+
+    @Test
+    void idleBucketsAreEvicted() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(60, 5, 100);
+        limiter.tryAcquire("a", 0);
+        limiter.tryAcquire("b", 10 * SECOND);
+        limiter.evictIdle(5 * SECOND);
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentTakesNeverExceedBurst() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 50, 100);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> {
+                if (limiter.tryAcquire("victim@example.com", 0) == 0) granted.incrementAndGet();
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(granted.get()).isEqualTo(50);
+    }
+}
@@ -0,0 +1,104 @@
+package com.osu.HealthApp.component;
+
+import com.osu.HealthApp.models.Context;
+import com.osu.HealthApp.models.Role;
+import com.osu.HealthApp.models.User;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Checks the cache returns the same verified claims, stays bounded, verifies each token's signature only once,
+ * and never skips verification of a token it hasn't seen.
+ */
+class VerifiedTokenCacheTest {
+
+    private JwtService jwt;
+    private SimpleMeterRegistry meters;
+
+    @BeforeEach
+    void setUp() {
+        jwt = new JwtService();
+        ReflectionTestUtils.setField(jwt, "issuer", "test");
+        ReflectionTestUtils.setField(jwt, "accessTtlMin", 15L);
+        ReflectionTestUtils.setField(jwt, "refreshTtlDays", 1L);
+        ReflectionTestUtils.setField(jwt, "secret", "0123456789abcdef0123456789abcdef");
+        jwt.init();
+        meters = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void repeatedTokensAreServedFromCache() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwt, meters, true, 100);
+        String token = token(1L);
+
+        assertThat(cache.verify(token).getSubject()).isEqualTo("u1@example.com");
+        assertThat(cache.verify(token).get(JwtService.CLAIM_USER_ID, Long.class)).isEqualTo(1L);
+        assertThat(meters.counter("jwt.cache.requests", "result", "hit").count()).isEqualTo(1);
+        assertThat(meters.counter("jwt.cache.requests", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void tamperedTokensAreStillRejected() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwt, meters, true, 100);
+        String token = token(1L);
+        cache.verify(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThatThrownBy(() -> cache.verify(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void sizeStaysBounded() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwt, meters, true, 50);
+        for (long id = 0; id < 500; id++) {
+            cache.verify(token(id));
+        }
+        assertThat(meters.get("jwt.cache.size").gauge().value()).isLessThanOrEqualTo(50);
+        assertThat(meters.counter("jwt.cache.evictions").count()).isPositive();
+    }
+
+    @Test
+    void cachedTokensSkipReverification() {
+        JwtService spy = spy(jwt);
+        List<String> tokens = new ArrayList<>();
+        for (long id = 0; id < 20; id++) {
+            tokens.add(token(id));
+        }
+
+        VerifiedTokenCache cache = new VerifiedTokenCache(spy, meters, true, 100);
+        for (int round = 0; round < 5; round++) {
+            tokens.forEach(cache::verify);
+        }
+        tokens.forEach(t -> verify(spy, times(1)).parse(t));
+        assertThat(meters.counter("jwt.cache.requests", "result", "hit").count()).isEqualTo(4 * 20);
+
+        // disabled: every call verifies the signature again
+        clearInvocations(spy);
+        VerifiedTokenCache disabled = new VerifiedTokenCache(spy, new SimpleMeterRegistry(), false, 100);
+        for (int round = 0; round < 5; round++) {
+            tokens.forEach(disabled::verify);
+        }
+        tokens.forEach(t -> verify(spy, times(5)).parse(t));
+    }
+
+    private String token(long id) {
+        User u = new User();
+        u.setId(id);
+        u.setEmail("u" + id + "@example.com");
+        u.getRoles().add(Role.PATIENT);
+        return jwt.generateAccessToken(u, Context.PATIENT);
+    }
+}
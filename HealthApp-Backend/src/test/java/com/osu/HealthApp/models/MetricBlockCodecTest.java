@@ -0,0 +1,61 @@
+package com.osu.HealthApp.models;
+
+import com.osu.HealthApp.models.MetricBlockCodec.Columns;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricBlockCodecTest {
+
+    @Test
+    void irregularReadingsRoundTripExactly() {
+        Random random = new Random(42);
+        int n = 5000;
+        long[] micros = new long[n];
+        double[] weight = new double[n];
+        double[] height = new double[n];
+        double[] bmi = new double[n];
+        long t = 1_700_000_000_123_456L;
+        for (int i = 0; i < n; i++) {
+            t += random.nextInt(3) == 0 ? random.nextLong(1, 1L << 40) : random.nextInt(1, 5_000_000);
+            micros[i] = t;
+            weight[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextDouble() * 200;
+            height[i] = i % 7 == 0 ? -0.0 : 1.8;
+            bmi[i] = random.nextBoolean() ? Double.MAX_VALUE : Double.MIN_VALUE * i;
+        }
+
+        Columns decoded = MetricBlockCodec.decode(MetricBlockCodec.encode(new Columns(micros, weight, height, bmi)));
+
+        assertThat(decoded.epochMicros()).containsExactly(micros);
+        assertThat(decoded.weight()).containsExactly(weight);
+        assertThat(decoded.height()).containsExactly(height);
+        assertThat(decoded.bmi()).containsExactly(bmi);
+    }
+
+    @Test
+    void regularDeviceReadingsCompressWell() {
+        // a month of hourly scale readings at whole seconds, weight drifting by 0.1 kg steps
+        int n = 30 * 24;
+        long[] micros = new long[n];
+        double[] weight = new double[n];
+        double[] height = new double[n];
+        double[] bmi = new double[n];
+        Random random = new Random(7);
+        double w = 82.0;
+        for (int i = 0; i < n; i++) {
+            micros[i] = (1_735_689_600L + i * 3600L + (random.nextInt(20) == 0 ? 1 : 0)) * 1_000_000;
+            w = Math.round((w + (random.nextInt(3) - 1) * 0.1) * 10) / 10.0;
+            weight[i] = w;
+            height[i] = 1.8;
+            bmi[i] = Math.round(w / (1.8 * 1.8) * 100) / 100.0;
+        }
+
+        byte[] encoded = MetricBlockCodec.encode(new Columns(micros, weight, height, bmi));
+
+        double bytesPerReading = (double) encoded.length / n;
+        assertThat(bytesPerReading).isLessThan(3.2);
+        assertThat(MetricBlockCodec.decode(encoded).weight()).containsExactly(weight);
+    }
+}
@@ -0,0 +1,142 @@
+package com.osu.HealthApp.repo;
+
+import com.osu.HealthApp.dtos.AppointmentResponse;
+import com.osu.HealthApp.models.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AppointmentRepositoryTest {
+
+    private static final OffsetDateTime MIN = OffsetDateTime.parse("1900-01-01T00:00:00Z");
+    private static final OffsetDateTime MAX = OffsetDateTime.parse("9999-12-31T00:00:00Z");
+    private static final OffsetDateTime FIRST = OffsetDateTime.parse("2030-01-07T14:00:00Z");
+
+    @Autowired private AppointmentRepository appointments;
+    @Autowired private AppointmentClinicalTextRepository clinicalText;
+    @Autowired private EntityManager em;
+
+    private Statistics stats;
+    private User doctor;
+
+    @BeforeEach
+    void setUp() {
+        stats = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        doctor = user("doc@example.com", Role.DOCTOR);
+    }
+
+    @Test
+    void listingIsOneStatementRegardlessOfRowCount() {
+        book(5);
+        long fewRows = statementsFor(() -> appointments.findPage(MIN, MAX, MIN, 0L, Limit.of(500)));
+
+        book(50);
+        long manyRows = statementsFor(() -> appointments.findPage(MIN, MAX, MIN, 0L, Limit.of(500)));
+        long byDoctor = statementsFor(() -> appointments.findPageByDoctorId(doctor.getId(), MIN, MAX, MIN, 0L, Limit.of(500)));
+
+        assertThat(fewRows).isEqualTo(1);
+        assertThat(manyRows).isEqualTo(1);
+        assertThat(byDoctor).isEqualTo(1);
+    }
+
+    @Test
+    void projectionFillsNamesAndPagesByKeyset() {
+        book(3);
+        em.clear();
+
+        List<AppointmentResponse> first = appointments.findPageByDoctorId(doctor.getId(), MIN, MAX, MIN, 0L, Limit.of(2));
+        assertThat(first).hasSize(2);
+        assertThat(first.get(0).getDoctorName()).isEqualTo("Doc Tor");
+        assertThat(first.get(0).getPatientName()).startsWith("Pat ");
+
+        AppointmentResponse last = first.get(1);
+        List<AppointmentResponse> rest = appointments.findPageByDoctorId(doctor.getId(), MIN, MAX,
+                last.getStartTime(), last.getId(), Limit.of(2));
+        assertThat(rest).hasSize(1);
+        assertThat(rest.get(0).getStartTime()).isAfter(last.getStartTime());
+    }
+
+    @Test
+    void exportStreamsRowsInStartOrder() {
+        book(4);
+        em.clear();
+
+        try (var rows = appointments.streamForExport(FIRST.plusHours(1), MAX)) {
+            assertThat(rows.map(AppointmentResponse::getStartTime).toList())
+                    .containsExactly(FIRST.plusHours(2), FIRST.plusHours(4), FIRST.plusHours(6));
+        }
+    }
+
+    @Test
+    void clinicalTextIsOneReadAndRoundTripsCompressed() {
+        book(1);
+        Appointment a = appointments.findAll().get(0);
+        String longNote = "BP stable, follow up in two weeks. ".repeat(200);
+        AppointmentClinicalText text = new AppointmentClinicalText(a);
+        text.setNurseNotes(longNote);
+        em.persist(text);
+
+        long reads = statementsFor(() -> assertThat(clinicalText.findNurseNote(a.getId()))
+                .hasValueSatisfying(v -> {
+                    assertThat(v.getText()).isEqualTo(longNote);
+                    assertThat(v.getDoctorId()).isEqualTo(doctor.getId());
+                }));
+        assertThat(reads).isEqualTo(1);
+        assertThat(clinicalText.findResult(a.getId())).hasValueSatisfying(v -> assertThat(v.getText()).isNull());
+        assertThat(clinicalText.findNurseNote(-1L)).isEmpty();
+
+        Number stored = (Number) em.createNativeQuery("select octet_length(nurse_notes) from appointment_clinical_text").getSingleResult();
+        assertThat(stored.intValue()).isLessThan(longNote.length() / 4);
+    }
+
+    private long statementsFor(Runnable query) {
+        em.flush();
+        em.clear();
+        stats.clear();
+        query.run();
+        return stats.getPrepareStatementCount();
+    }
+
+    /** Each appointment gets its own patient, with an address and emergency contact, to expose any fan-out. */
+    private void book(int count) {
+        for (int i = 0; i < count; i++) {
+            User patient = user("p" + System.nanoTime() + "@example.com", Role.PATIENT);
+            Appointment a = new Appointment();
+            a.setPatient(patient);
+            a.setDoctor(doctor);
+            a.setStartTime(FIRST.plusHours(2L * i));
+            a.setEndTime(FIRST.plusHours(2L * i + 1));
+            a.setReason("checkup");
+            em.persist(a);
+        }
+        em.flush();
+    }
+
+    private User user(String email, Role role) {
+        User u = new User();
+        u.setFirstName(role == Role.DOCTOR ? "Doc" : "Pat");
+        u.setLastName(role == Role.DOCTOR ? "Tor" : "Ient");
+        u.setEmail(email);
+        u.setPasswordHash("x");
+        u.getRoles().add(role);
+        Address address = new Address();
+        address.setCity("Columbus");
+        u.setAddress(address);
+        EmergencyContact contact = new EmergencyContact();
+        contact.setName("Kin");
+        u.setEmergencyContact(contact);
+        em.persist(u);
+        return u;
+    }
+}
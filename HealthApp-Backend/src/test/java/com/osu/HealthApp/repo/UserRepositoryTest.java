@@ -0,0 +1,91 @@
+package com.osu.HealthApp.repo;
+
+import com.osu.HealthApp.dtos.AdminUserResponse;
+import com.osu.HealthApp.models.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserRepositoryTest {
+
+    private static final List<Boolean> ANY_ENABLED = List.of(true, false);
+
+    @Autowired private UserRepository users;
+    @Autowired private EntityManager em;
+
+    private Statistics stats;
+
+    @BeforeEach
+    void setUp() {
+        stats = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        user("alice@example.com", "Alice", true, Role.PATIENT);
+        user("bob@example.com", "Bob", true, Role.PATIENT, Role.DOCTOR);
+        user("carol_x@example.com", "Carol", false, Role.PATIENT, Role.NURSE);
+        user("carolyn@example.com", "Carolyn", true, Role.PATIENT);
+        em.flush();
+        em.clear();
+        stats.clear();
+    }
+
+    @Test
+    void adminPageAggregatesRolesInOneStatement() {
+        List<AdminUserResponse> page = users.findAdminPage(0, ANY_ENABLED, "%", true, null, Limit.of(10));
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(page).extracting(AdminUserResponse::email)
+                .containsExactly("alice@example.com", "bob@example.com", "carol_x@example.com", "carolyn@example.com");
+        assertThat(page.get(1).roles()).isEqualTo(Set.of(Role.PATIENT, Role.DOCTOR));
+    }
+
+    @Test
+    void filtersByRoleEnabledAndPrefix() {
+        assertThat(users.findAdminPage(0, ANY_ENABLED, "%", false, Role.DOCTOR, Limit.of(10)))
+                .extracting(AdminUserResponse::email).containsExactly("bob@example.com");
+        assertThat(users.findAdminPage(0, List.of(false), "%", true, null, Limit.of(10)))
+                .extracting(AdminUserResponse::email).containsExactly("carol_x@example.com");
+        assertThat(users.findAdminPage(0, ANY_ENABLED, "carol!_%", true, null, Limit.of(10)))
+                .extracting(AdminUserResponse::email).containsExactly("carol_x@example.com");
+    }
+
+    @Test
+    void pagesByIdKeyset() {
+        List<AdminUserResponse> first = users.findAdminPage(0, ANY_ENABLED, "%", true, null, Limit.of(2));
+        List<AdminUserResponse> rest = users.findAdminPage(first.get(1).id(), ANY_ENABLED, "%", true, null, Limit.of(10));
+        assertThat(rest).extracting(AdminUserResponse::email).containsExactly("carol_x@example.com", "carolyn@example.com");
+    }
+
+    @Test
+    void passwordHashSwapsOnlyFromTheCheckedHash() {
+        Long id = users.findByEmail("alice@example.com").orElseThrow().getId();
+
+        assertThat(users.updatePasswordHash(id, "stale", "new")).isZero();
+        assertThat(users.updatePasswordHash(id, "x", "new")).isEqualTo(1);
+        em.clear();
+        assertThat(users.findById(id)).hasValueSatisfying(u -> assertThat(u.getPasswordHash()).isEqualTo("new"));
+    }
+
+    private void user(String email, String firstName, boolean enabled, Role... roles) {
+        User u = new User();
+        u.setFirstName(firstName);
+        u.setLastName("Smith");
+        u.setEmail(email);
+        u.setPasswordHash("x");
+        u.setEnabled(enabled);
+        u.getRoles().addAll(Set.of(roles));
+        Address address = new Address();
+        address.setCity("Columbus");
+        u.setAddress(address);
+        em.persist(u);
+    }
+}
@@ -0,0 +1,116 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.component.IdSequenceAligner;
+import com.osu.HealthApp.dtos.AppointmentRequest;
+import com.osu.HealthApp.dtos.BulkAppointmentResult;
+import com.osu.HealthApp.models.Role;
+import com.osu.HealthApp.models.User;
+import com.osu.HealthApp.repo.AppointmentClinicalTextRepository;
+import com.osu.HealthApp.repo.AppointmentRepository;
+import com.osu.HealthApp.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Bulk create against a table that still holds rows from the IDENTITY days, after IdSequenceAligner has run. */
+@DataJpaTest
+@Import(IdSequenceAligner.class)
+class AppointmentBulkCreateTest {
+
+    private static final OffsetDateTime DAY = OffsetDateTime.parse("2030-03-04T09:00:00-05:00");
+    private static final List<Long> LEGACY_IDS = List.of(1L, 2L, 3L, 175L);
+
+    @Autowired private AppointmentRepository appointments;
+    @Autowired private AppointmentClinicalTextRepository clinicalText;
+    @Autowired private UserRepository users;
+    @Autowired private IdSequenceAligner aligner;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private EntityManager em;
+
+    private AppointmentServiceFixture fixture;
+    private AppointmentService service;
+    private User doctor;
+    private User patient;
+
+    @BeforeEach
+    void setUp() {
+        doctor = user("doc@example.com", Role.DOCTOR);
+        patient = user("pat@example.com", Role.PATIENT);
+        em.flush();
+
+        // rows written before the switch to sequence ids, one of them past the first allocation block
+        for (int i = 0; i < LEGACY_IDS.size(); i++) {
+            jdbc.update("insert into appointment (id, patient_id, doctor_id, start_time, end_time, reason) values (?, ?, ?, ?, ?, ?)",
+                    LEGACY_IDS.get(i), patient.getId(), doctor.getId(),
+                    DAY.minusDays(30 - i), DAY.minusDays(30 - i).plusHours(1), "legacy");
+        }
+        aligner.run(null);
+
+        fixture = new AppointmentServiceFixture(appointments, clinicalText, users, em, 300);
+        service = fixture.service;
+        AppointmentServiceFixture.signInAsStaff();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        fixture.close();
+    }
+
+    @Test
+    void bulkCreateReportsEachItemAndNeverReusesLegacyIds() {
+        List<AppointmentRequest> requests = new ArrayList<>(List.of(
+                request(patient.getId(), doctor.getId(), DAY),
+                request(patient.getId(), doctor.getId(), DAY.plusMinutes(30)),  // inside item 0's buffer
+                request(patient.getId(), patient.getId(), DAY.plusHours(2)),    // own doctor
+                request(patient.getId(), 999_999L, DAY.plusHours(2)),           // no such doctor
+                request(patient.getId(), doctor.getId(), DAY.minusDays(30)),    // clashes with a legacy row
+                request(patient.getId(), doctor.getId(), DAY.plusHours(2))));
+        for (int i = 0; i < 200; i++) { // spans several insert batches and allocation blocks
+            requests.add(request(patient.getId(), doctor.getId(), DAY.plusDays(1 + i)));
+        }
+
+        List<BulkAppointmentResult> results = service.createAppointments(requests);
+        em.clear();
+
+        assertThat(results).hasSize(requests.size());
+        assertThat(results).extracting(BulkAppointmentResult::index).containsExactlyElementsOf(
+                IntStream.range(0, requests.size()).boxed().toList());
+        assertThat(results.subList(0, 6)).extracting(BulkAppointmentResult::status).containsExactly(201, 409, 400, 400, 409, 201);
+        assertThat(results.get(1).error()).contains("in this batch");
+        assertThat(results.get(2).error()).isEqualTo("a patient cannot be their own doctor");
+        assertThat(results.get(3).error()).isEqualTo("Invalid doctorId");
+        assertThat(results.get(4).error()).contains("another appointment's buffer");
+
+        List<Long> created = results.stream().map(BulkAppointmentResult::appointmentId).filter(Objects::nonNull).toList();
+        assertThat(created).hasSize(2 + 200).doesNotHaveDuplicates().doesNotContainAnyElementsOf(LEGACY_IDS);
+        assertThat(created).allSatisfy(id -> assertThat(id).isGreaterThan(175L));
+        assertThat(appointments.count()).isEqualTo(LEGACY_IDS.size() + created.size());
+        assertThat(appointments.findById(results.get(5).appointmentId())).hasValueSatisfying(a ->
+                assertThat(a.getStartTime().toInstant()).isEqualTo(DAY.plusHours(2).toInstant()));
+    }
+
+    private User user(String email, Role role) {
+        User u = AppointmentServiceFixture.user(email, role);
+        em.persist(u);
+        return u;
+    }
+
+    private static AppointmentRequest request(Long patientId, Long doctorId, OffsetDateTime start) {
+        return AppointmentServiceFixture.request(patientId, doctorId, start, "bulk");
+    }
+}
@@ -0,0 +1,162 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.dtos.AppointmentRequest;
+import com.osu.HealthApp.dtos.AppointmentResponse;
+import com.osu.HealthApp.dtos.AppointmentSeriesRequest;
+import com.osu.HealthApp.models.Appointment;
+import com.osu.HealthApp.models.RecurrenceFrequency;
+import com.osu.HealthApp.models.Role;
+import com.osu.HealthApp.models.User;
+import com.osu.HealthApp.repo.AppointmentClinicalTextRepository;
+import com.osu.HealthApp.repo.AppointmentRepository;
+import com.osu.HealthApp.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+class AppointmentSeriesTest {
+
+    private static final ZoneId CLINIC = ZoneId.of("America/New_York");
+    // Monday before US DST starts (Sunday 2030-03-10)
+    private static final OffsetDateTime MONDAY_10AM = OffsetDateTime.parse("2030-03-04T10:00:00-05:00");
+
+    @Autowired private AppointmentRepository appointments;
+    @Autowired private AppointmentClinicalTextRepository clinicalText;
+    @Autowired private UserRepository users;
+    @Autowired private EntityManager em;
+
+    private AppointmentServiceFixture fixture;
+    private AppointmentService service;
+    private User doctor;
+    private User patient;
+
+    @BeforeEach
+    void setUp() {
+        doctor = user("doc@example.com", Role.DOCTOR);
+        patient = user("pat@example.com", Role.PATIENT);
+
+        fixture = new AppointmentServiceFixture(appointments, clinicalText, users, em, 0);
+        service = fixture.service;
+        AppointmentServiceFixture.signInAsStaff();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        fixture.close();
+    }
+
+    @Test
+    void weeklySeriesKeepsClinicWallClockAcrossDst() {
+        List<AppointmentResponse> series = service.createAppointmentSeries(series(MONDAY_10AM, 3));
+
+        assertThat(series).extracting(a -> a.getStartTime().atZoneSameInstant(CLINIC).toLocalTime())
+                .containsOnly(LocalTime.of(10, 0));
+        assertThat(series).extracting(a -> a.getStartTime().getOffset().getTotalSeconds() / 3600)
+                .containsExactly(-5, -4, -4);
+        assertThat(series).extracting(AppointmentResponse::getSeriesId).doesNotContainNull().containsOnly(series.get(0).getSeriesId());
+    }
+
+    @Test
+    void oneClashRejectsTheWholeSeries() {
+        Appointment existing = new Appointment();
+        existing.setPatient(patient);
+        existing.setDoctor(doctor);
+        OffsetDateTime thirdWeek = MONDAY_10AM.atZoneSameInstant(CLINIC).plusWeeks(2).toOffsetDateTime();
+        existing.setStartTime(thirdWeek.plusMinutes(30));
+        existing.setEndTime(thirdWeek.plusMinutes(90));
+        em.persist(existing);
+        em.flush();
+
+        assertThatThrownBy(() -> service.createAppointmentSeries(series(MONDAY_10AM, 4)))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+                    assertThat(e.getReason()).contains("2030-03-18T10:00-04:00");
+                });
+        assertThat(appointments.count()).isEqualTo(1);
+    }
+
+    @Test
+    void seriesIsCappedAt104Occurrences() {
+        assertThat(service.createAppointmentSeries(series(MONDAY_10AM, 104))).hasSize(104);
+        assertThatThrownBy(() -> service.createAppointmentSeries(series(MONDAY_10AM.plusHours(3), 105)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void seriesEndingBeforeItStartsIsRejected() {
+        AppointmentSeriesRequest r = series(MONDAY_10AM, 1);
+        r.setCount(null);
+        r.setUntil(MONDAY_10AM.minusDays(1));
+
+        assertThatThrownBy(() -> service.createAppointmentSeries(r))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+                    assertThat(e.getReason()).isEqualTo("series has no occurrences");
+                });
+    }
+
+    @Test
+    void movingFollowingOccurrencesMayOverlapTheirOwnOldSlots() {
+        List<AppointmentResponse> series = service.createAppointmentSeries(series(MONDAY_10AM, 4));
+        em.flush();
+        em.clear();
+
+        // move the second occurrence on by 30 minutes: each new slot sits inside its own old one's buffer
+        AppointmentResponse second = series.get(1);
+        List<AppointmentResponse> moved = service.updateAppointmentAndFollowing(second.getId(),
+                request(second.getStartTime().plusMinutes(30)));
+        em.flush();
+        em.clear();
+
+        assertThat(moved).extracting(AppointmentResponse::getId)
+                .containsExactly(series.get(1).getId(), series.get(2).getId(), series.get(3).getId());
+        assertThat(moved).extracting(a -> a.getStartTime().atZoneSameInstant(CLINIC).toLocalTime())
+                .containsOnly(LocalTime.of(10, 30));
+        assertThat(appointments.findById(series.get(0).getId())).hasValueSatisfying(a ->
+                assertThat(a.getStartTime().toInstant()).isEqualTo(MONDAY_10AM.toInstant()));
+
+        // the untouched first occurrence still blocks moving the rest back onto it
+        assertThatThrownBy(() -> service.updateAppointmentAndFollowing(second.getId(), request(MONDAY_10AM.plusMinutes(15))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    private AppointmentSeriesRequest series(OffsetDateTime start, int count) {
+        AppointmentSeriesRequest r = new AppointmentSeriesRequest();
+        r.setPatientId(patient.getId());
+        r.setDoctorId(doctor.getId());
+        r.setStartTime(start);
+        r.setEndTime(start.plusMinutes(60));
+        r.setReason("physio");
+        r.setFrequency(RecurrenceFrequency.WEEKLY);
+        r.setCount(count);
+        return r;
+    }
+
+    private AppointmentRequest request(OffsetDateTime start) {
+        return AppointmentServiceFixture.request(patient.getId(), doctor.getId(), start, "physio");
+    }
+
+    private User user(String email, Role role) {
+        User u = AppointmentServiceFixture.user(email, role);
+        em.persist(u);
+        return u;
+    }
+}
@@ -0,0 +1,238 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.dtos.AppointmentRequest;
+import com.osu.HealthApp.models.Appointment;
+import com.osu.HealthApp.models.Role;
+import com.osu.HealthApp.models.User;
+import com.osu.HealthApp.repo.AppointmentClinicalTextRepository;
+import com.osu.HealthApp.repo.AppointmentRepository;
+import com.osu.HealthApp.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static com.osu.HealthApp.service.AppointmentServiceFixture.asStaff;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hammers createAppointment from many threads against an in-memory "database" with simulated write latency,
+ * then checks that no doctor ended up with two appointments inside each other's buffer, and that bookings for
+ * doctors on different lock stripes actually held their locks at the same time.
+ */
+class AppointmentServiceConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int GAP_MINUTES = 15;
+    private static final OffsetDateTime DAY = OffsetDateTime.parse("2030-03-04T09:00:00-05:00");
+
+    private final Map<Long, Appointment> table = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, User> users = new HashMap<>();
+    private final AtomicInteger lockHolders = new AtomicInteger();
+    private final AtomicInteger maxLockHolders = new AtomicInteger();
+
+    private AppointmentServiceFixture fixture;
+    private AppointmentService service;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        AppointmentRepository appointments = mock(AppointmentRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+
+        when(userRepository.findById(anyLong())).thenAnswer(inv -> Optional.ofNullable(users.get(inv.<Long>getArgument(0))));
+        when(appointments.save(any(Appointment.class))).thenAnswer(inv -> {
+            Appointment a = inv.getArgument(0);
+            LockSupport.parkNanos(200_000); // widen the check-then-insert window like a real round trip would
+            if (a.getId() == null) {
+                a.setId(ids.incrementAndGet());
+            }
+            table.put(a.getId(), a);
+            return a;
+        });
+        when(appointments.findBookedSlots(anyLong(), any(), any())).thenAnswer(inv -> {
+            Long doctorId = inv.getArgument(0);
+            OffsetDateTime from = inv.getArgument(1);
+            OffsetDateTime to = inv.getArgument(2);
+            return table.values().stream()
+                    .filter(a -> a.getDoctor().getId().equals(doctorId))
+                    .filter(a -> !a.getStartTime().isBefore(from) && a.getStartTime().isBefore(to))
+                    .map(AppointmentServiceConcurrencyTest::slotOf)
+                    .toList();
+        });
+
+        fixture = new AppointmentServiceFixture(appointments, mock(AppointmentClinicalTextRepository.class), userRepository,
+                mock(EntityManager.class), 300, new CountingLocks());
+        service = fixture.service;
+        pool = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+        fixture.close();
+    }
+
+    @Test
+    void contendedSlotsAreNeverDoubleBooked() throws Exception {
+        List<Long> doctors = createUsers(4, Role.DOCTOR);
+        Long patient = createUsers(1, Role.PATIENT).get(0);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        // every thread tries every 15-minute start of the day for each doctor, in a shuffled order
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            tasks.add(() -> {
+                List<Runnable> attempts = new ArrayList<>();
+                for (Long doctor : doctors) {
+                    for (int slot = 0; slot < 29; slot++) {
+                        OffsetDateTime start = DAY.plusMinutes(15L * slot);
+                        attempts.add(() -> {
+                            try {
+                                inTransaction(() -> service.createAppointment(request(patient, doctor, start)));
+                                booked.incrementAndGet();
+                            } catch (ResponseStatusException e) {
+                                conflicts.incrementAndGet();
+                            }
+                        });
+                    }
+                }
+                Collections.shuffle(attempts, new Random(seed));
+                asStaff(() -> attempts.forEach(Runnable::run));
+                return null;
+            });
+        }
+        for (Future<Void> f : pool.invokeAll(tasks)) {
+            f.get();
+        }
+
+        assertNoOverlaps();
+        assertThat(booked.get()).isEqualTo(table.size()).isPositive();
+        assertThat(conflicts.get()).isEqualTo(THREADS * doctors.size() * 29 - booked.get());
+    }
+
+    @Test
+    void independentDoctorsBookInParallel() throws Exception {
+        int doctorsCount = 256;
+        int perDoctor = 6; // 09:00, 10:15, 11:30 ... fills the day with no conflicts
+        List<Long> doctors = createUsers(doctorsCount, Role.DOCTOR);
+        Long patient = createUsers(1, Role.PATIENT).get(0);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Long doctor : doctors) {
+            tasks.add(() -> {
+                asStaff(() -> {
+                    for (int i = 0; i < perDoctor; i++) {
+                        OffsetDateTime start = DAY.plusMinutes(75L * i);
+                        inTransaction(() -> service.createAppointment(request(patient, doctor, start)));
+                    }
+                });
+                return null;
+            });
+        }
+
+        for (Future<Void> f : pool.invokeAll(tasks)) {
+            f.get();
+        }
+
+        assertNoOverlaps();
+        assertThat(table).hasSize(doctorsCount * perDoctor);
+        // one stripe is held by one thread at a time, so more than one holder means different stripes ran together
+        assertThat(maxLockHolders.get()).as("booking locks held at the same time").isGreaterThanOrEqualTo(4);
+    }
+
+    private void assertNoOverlaps() {
+        Map<Long, List<Appointment>> byDoctor = new HashMap<>();
+        table.values().forEach(a -> byDoctor.computeIfAbsent(a.getDoctor().getId(), k -> new ArrayList<>()).add(a));
+        byDoctor.values().forEach(list -> {
+            list.sort(Comparator.comparing(Appointment::getStartTime));
+            for (int i = 1; i < list.size(); i++) {
+                OffsetDateTime earliestNext = list.get(i - 1).getEndTime().plusMinutes(GAP_MINUTES);
+                assertThat(list.get(i).getStartTime()).as("appointment inside another's buffer").isAfterOrEqualTo(earliestNext);
+            }
+        });
+    }
+
+    /**
+     * Counts the threads holding a doctor booking lock. The count drops before the stripe is released and rises
+     * only after it is taken, so it never overstates how many stripes are held at once.
+     */
+    private class CountingLocks extends DoctorBookingLocks {
+        CountingLocks() {
+            super(64, 5000);
+        }
+
+        @Override
+        public void lockUntilCompletion(Long doctorId) {
+            boolean[] held = {false};
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (held[0]) lockHolders.decrementAndGet();
+                }
+            });
+            super.lockUntilCompletion(doctorId);
+            held[0] = true;
+            maxLockHolders.accumulateAndGet(lockHolders.incrementAndGet(), Math::max);
+        }
+    }
+
+    /** Mimics what the transaction manager does around a @Transactional call: afterCommit, then afterCompletion. */
+    private static <T> T inTransaction(Supplier<T> work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            T result = work.get();
+            List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+            syncs.forEach(TransactionSynchronization::afterCommit);
+            syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            return result;
+        } catch (RuntimeException e) {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            throw e;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private List<Long> createUsers(int count, Role role) {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User u = AppointmentServiceFixture.user(null, role);
+            u.setId(1000L + users.size());
+            users.put(u.getId(), u);
+            created.add(u.getId());
+        }
+        return created;
+    }
+
+    private static AppointmentRequest request(Long patientId, Long doctorId, OffsetDateTime start) {
+        return AppointmentServiceFixture.request(patientId, doctorId, start, "stress");
+    }
+
+    private static AppointmentRepository.BookedSlot slotOf(Appointment a) {
+        return new AppointmentRepository.BookedSlot() {
+            @Override public Long getId() { return a.getId(); }
+            @Override public OffsetDateTime getStartTime() { return a.getStartTime(); }
+            @Override public OffsetDateTime getEndTime() { return a.getEndTime(); }
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package com.osu.HealthApp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.osu.HealthApp.dtos.AppointmentRequest;
+import com.osu.HealthApp.models.Role;
+import com.osu.HealthApp.models.User;
+import com.osu.HealthApp.repo.AppointmentClinicalTextRepository;
+import com.osu.HealthApp.repo.AppointmentRepository;
+import com.osu.HealthApp.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * An AppointmentService wired by hand the way the application context wires it, for tests that drive the service
+ * directly against real or mocked repositories. Close it to stop the slot search executor.
+ */
+final class AppointmentServiceFixture implements AutoCloseable {
+
+    final AppointmentService service;
+    private final ThreadPoolTaskExecutor searchExecutor;
+
+    /**
+     * @param indexTtlSeconds how long the schedule index trusts a loaded doctor. Tests inside a rolled-back
+     *                        transaction pass 0: the after-commit index updates never run there, so the index has
+     *                        to reread the DB on every check.
+     */
+    AppointmentServiceFixture(AppointmentRepository appointments, AppointmentClinicalTextRepository clinicalText,
+                              UserRepository users, EntityManager em, long indexTtlSeconds) {
+        this(appointments, clinicalText, users, em, indexTtlSeconds, new DoctorBookingLocks(64, 5000));
+    }
+
+    AppointmentServiceFixture(AppointmentRepository appointments, AppointmentClinicalTextRepository clinicalText,
+                              UserRepository users, EntityManager em, long indexTtlSeconds, DoctorBookingLocks locks) {
+        DoctorScheduleIndex index = new DoctorScheduleIndex(appointments);
+        ReflectionTestUtils.setField(index, "ttlSeconds", indexTtlSeconds);
+        searchExecutor = new ThreadPoolTaskExecutor();
+        searchExecutor.initialize();
+        service = new AppointmentService(appointments, clinicalText, users, index, locks, searchExecutor, new ObjectMapper(), em);
+    }
+
+    @Override
+    public void close() {
+        searchExecutor.shutdown();
+    }
+
+    /** Signs the current thread in as a nurse working in the staff context. */
+    static void signInAsStaff() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "nurse@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_NURSE"), new SimpleGrantedAuthority("CONTEXT_STAFF"))));
+    }
+
+    static void asStaff(Runnable work) {
+        signInAsStaff();
+        try {
+            work.run();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /** A user with a single role, not yet persisted. */
+    static User user(String email, Role role) {
+        User u = new User();
+        u.setFirstName(role.name());
+        u.setLastName("User");
+        u.setEmail(email);
+        u.setPasswordHash("x");
+        u.getRoles().add(role);
+        return u;
+    }
+
+    /** A one-hour appointment starting at {@code start}. */
+    static AppointmentRequest request(Long patientId, Long doctorId, OffsetDateTime start, String reason) {
+        AppointmentRequest r = new AppointmentRequest();
+        r.setPatientId(patientId);
+        r.setDoctorId(doctorId);
+        r.setStartTime(start);
+        r.setEndTime(start.plusMinutes(60));
+        r.setReason(reason);
+        return r;
+    }
+}
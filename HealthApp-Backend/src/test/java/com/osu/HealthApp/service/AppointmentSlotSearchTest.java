@@ -0,0 +1,89 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.models.Role;
+import com.osu.HealthApp.repo.AppointmentClinicalTextRepository;
+import com.osu.HealthApp.repo.AppointmentRepository;
+import com.osu.HealthApp.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** First-available search against a doctor booked solid, so every day of the window gets scanned. */
+class AppointmentSlotSearchTest {
+
+    private static final ZoneId CLINIC = ZoneId.of("America/New_York");
+    private static final Long DOCTOR = 7L;
+
+    private final AtomicLong ids = new AtomicLong();
+    private AppointmentRepository appointments;
+    private AppointmentServiceFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        appointments = mock(AppointmentRepository.class);
+        UserRepository users = mock(UserRepository.class);
+        when(users.findIdsWithRole(anyCollection(), eq(Role.DOCTOR))).thenReturn(Set.of(DOCTOR));
+        // one booking over the whole clinic day, every day asked for
+        when(appointments.findBookedSlots(anyLong(), any(), any())).thenAnswer(inv -> {
+            OffsetDateTime from = inv.getArgument(1);
+            OffsetDateTime to = inv.getArgument(2);
+            List<AppointmentRepository.BookedSlot> slots = new ArrayList<>();
+            for (LocalDate d = from.atZoneSameInstant(CLINIC).toLocalDate(); !d.isAfter(to.atZoneSameInstant(CLINIC).toLocalDate()); d = d.plusDays(1)) {
+                OffsetDateTime start = d.atTime(LocalTime.of(9, 0)).atZone(CLINIC).toOffsetDateTime();
+                if (!start.isBefore(from) && start.isBefore(to)) {
+                    slots.add(slot(ids.incrementAndGet(), start, start.plusHours(8)));
+                }
+            }
+            return slots;
+        });
+        fixture = new AppointmentServiceFixture(appointments, mock(AppointmentClinicalTextRepository.class), users,
+                mock(EntityManager.class), 300);
+        AppointmentServiceFixture.signInAsStaff();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        fixture.close();
+    }
+
+    @Test
+    void windowAcrossAMonthEndLoadsOneChunkPerWeek() {
+        // 31 days from April 10: May 10 is a whole month on, which must not start an extra chunk
+        OffsetDateTime from = LocalDate.of(2030, 4, 10).atStartOfDay(CLINIC).toOffsetDateTime();
+        OffsetDateTime to = from.atZoneSameInstant(CLINIC).plusDays(31).toOffsetDateTime();
+
+        assertThat(fixture.service.findFirstAvailableSlots(from, to, 5, List.of(DOCTOR))).isEmpty();
+        // days 0, 7, 14, 21 and 28 of the window
+        verify(appointments, times(5)).findBookedSlots(eq(DOCTOR), any(), any());
+    }
+
+    private static AppointmentRepository.BookedSlot slot(Long id, OffsetDateTime start, OffsetDateTime end) {
+        return new AppointmentRepository.BookedSlot() {
+            @Override public Long getId() { return id; }
+            @Override public OffsetDateTime getStartTime() { return start; }
+            @Override public OffsetDateTime getEndTime() { return end; }
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.dtos.HealthMetricAlert;
+import com.osu.HealthApp.models.HealthMetricSummary;
+import com.osu.HealthApp.models.MetricWindow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HealthMetricAlertsTest {
+
+    private static final Instant DAY0 = Instant.parse("2025-03-03T08:00:00Z");
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final HealthMetricAlerts alerts = new HealthMetricAlerts(meters,
+            new String[]{"bmi above 30", "bmi change 2 in 7d", "weight below 50"}, 3);
+
+    @Test
+    void rulesFireOnCrossingsAndFastChanges() throws Exception {
+        HealthMetricSummary summary = new HealthMetricSummary();
+        MetricWindow window = new MetricWindow();
+        List<HealthMetricAlert> out = new ArrayList<>();
+
+        add(summary, window, DAY0, 80.0, 25.0, out);
+        add(summary, window, DAY0.plus(Duration.ofDays(3)), 82.0, 26.5, out);
+        assertThat(out).isEmpty();
+
+        // +2.2 against day 0, still inside 7 days
+        add(summary, window, DAY0.plus(Duration.ofDays(6)), 84.0, 27.2, out);
+        assertThat(out).singleElement().satisfies(a -> {
+            assertThat(a.rule()).isEqualTo("bmi change 2 in 7d");
+            assertThat(a.reference()).isEqualTo(25.0);
+            assertThat(a.message()).isEqualTo("bmi rose from 25.00 to 27.20 within 7d");
+        });
+
+        // day 0 has left the 7-day span; crossing 30 fires once, staying above doesn't
+        out.clear();
+        add(summary, window, DAY0.plus(Duration.ofDays(12)), 90.0, 30.5, out);
+        add(summary, window, DAY0.plus(Duration.ofDays(13)), 90.0, 30.6, out);
+        assertThat(out).extracting(HealthMetricAlert::rule).containsExactly("bmi above 30", "bmi change 2 in 7d");
+
+        // a backfilled reading older than the latest never counts as a crossing
+        out.clear();
+        add(summary, window, DAY0.plus(Duration.ofDays(11)), 45.0, 28.0, out);
+        assertThat(out).isEmpty();
+
+        alerts.publishAfterCommit(List.of(alert("a"), alert("b"), alert("c"), alert("d")));
+        assertThat(alerts.poll(10, Duration.ZERO)).extracting(HealthMetricAlert::rule).containsExactly("b", "c", "d");
+        assertThat(alerts.poll(10, Duration.ZERO)).isEmpty();
+        assertThat(meters.counter("health.alerts.dropped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void changeFiresOnceForAJumpNotForEveryReadingAfterIt() {
+        HealthMetricSummary summary = new HealthMetricSummary();
+        MetricWindow window = new MetricWindow();
+        List<HealthMetricAlert> out = new ArrayList<>();
+
+        add(summary, window, DAY0, 80.0, 25.0, out);
+        add(summary, window, DAY0.plus(Duration.ofDays(1)), 88.0, 27.5, out);
+        // every later reading is still more than 2 above day 0, which stays in the 7-day span until day 7
+        for (int day = 2; day <= 6; day++) {
+            add(summary, window, DAY0.plus(Duration.ofDays(day)), 88.0, 27.5 + day / 20.0, out);
+        }
+        assertThat(out).singleElement().satisfies(a -> {
+            assertThat(a.rule()).isEqualTo("bmi change 2 in 7d");
+            assertThat(a.recordedAt()).isEqualTo(DAY0.plus(Duration.ofDays(1)));
+        });
+
+        // back inside the limit, a second jump is a new change
+        out.clear();
+        add(summary, window, DAY0.plus(Duration.ofDays(7)), 86.0, 26.0, out);
+        add(summary, window, DAY0.plus(Duration.ofDays(8)), 80.0, 23.5, out);
+        add(summary, window, DAY0.plus(Duration.ofDays(9)), 80.0, 23.6, out);
+        assertThat(out).singleElement().satisfies(a -> assertThat(a.message()).isEqualTo("bmi fell from 27.80 to 23.50 within 7d"));
+    }
+
+    @Test
+    void invalidRulesAreRejected() {
+        assertThatThrownBy(() -> HealthMetricAlerts.parse("bmi sideways 3")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HealthMetricAlerts.parse("weight change 5 in 60d")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** What HealthMetricSummaries.Update does per reading, minus persistence. */
+    private void add(HealthMetricSummary s, MetricWindow window, Instant at, double weight, double bmi, List<HealthMetricAlert> out) {
+        alerts.evaluate(1L, s, window, at, weight, bmi, out);
+        if (s.getLatestAt() == null || !at.isBefore(s.getLatestAt())) {
+            s.setLatestAt(at);
+            s.setLatestWeight(weight);
+            s.setLatestBmi(bmi);
+        }
+        window.add(LocalDate.ofInstant(at, ZoneOffset.UTC).toEpochDay(), weight, bmi);
+    }
+
+    private static HealthMetricAlert alert(String rule) {
+        return new HealthMetricAlert(1L, rule, rule, 0, 0, DAY0, DAY0);
+    }
+}
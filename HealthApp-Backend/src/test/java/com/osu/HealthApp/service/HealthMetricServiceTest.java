@@ -0,0 +1,247 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.component.AuthenticatedUser;
+import com.osu.HealthApp.dtos.HealthMetricBatchResult;
+import com.osu.HealthApp.dtos.HealthMetricDto;
+import com.osu.HealthApp.dtos.HealthMetricReading;
+import com.osu.HealthApp.dtos.HealthMetricSeries;
+import com.osu.HealthApp.dtos.HealthMetricSummaryResponse;
+import com.osu.HealthApp.dtos.HealthMetricSeries.Aggregate;
+import com.osu.HealthApp.dtos.HealthMetricSeries.Resolution;
+import com.osu.HealthApp.models.*;
+import com.osu.HealthApp.repo.HealthMetricRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest
+@Import({HealthMetricService.class, HealthMetricColdStore.class, HealthMetricSummaries.class, HealthMetricAlerts.class, SimpleMeterRegistry.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class HealthMetricServiceTest {
+
+    private static final Instant MONDAY = Instant.parse("2025-03-03T00:00:00Z");
+
+    @Autowired private HealthMetricService service;
+    @Autowired private HealthMetricColdStore coldStore;
+    @Autowired private HealthMetricRepository metrics;
+    @Autowired private EntityManager em;
+
+    private User patient;
+
+    @BeforeEach
+    void setUp() {
+        patient = new User();
+        patient.setFirstName("Pat");
+        patient.setLastName("Smith");
+        patient.setEmail("pat@example.com");
+        patient.setPasswordHash("x");
+        patient.getRoles().add(Role.PATIENT);
+        em.persist(patient);
+        // two readings a day for three weeks, weight creeping up by 0.1 each time
+        for (int i = 0; i < 42; i++) {
+            HealthMetric m = new HealthMetric();
+            m.setUser(patient);
+            m.setWeight(80 + i / 10.0);
+            m.setHeight(1.8);
+            m.setBmi(m.getWeight() / (1.8 * 1.8));
+            m.setRecordedAt(MONDAY.plusSeconds(i * 12 * 3600L));
+            em.persist(m);
+        }
+        em.flush();
+        em.clear();
+        signIn(patient.getId(), Context.PATIENT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void weeklyBucketsAggregateInOnePass() {
+        HealthMetricSeries series = service.getSeries(patient.getId(), Instant.EPOCH, MONDAY.plusSeconds(86400L * 365),
+                Resolution.WEEK, EnumSet.allOf(Aggregate.class));
+
+        assertThat(series.points()).hasSize(3);
+        HealthMetricSeries.Point first = series.points().get(0);
+        assertThat(first.start()).isEqualTo(MONDAY);
+        assertThat(first.count()).isEqualTo(14);
+        assertThat(first.weight().min()).isEqualTo(80.0);
+        assertThat(first.weight().max()).isCloseTo(81.3, within(1e-9));
+        assertThat(first.weight().last()).isEqualTo(first.weight().max());
+        assertThat(first.weight().avg()).isCloseTo(80.65, within(1e-9));
+    }
+
+    @Test
+    void onlyRequestedAggregatesAreReturned() {
+        HealthMetricSeries series = service.getSeries(patient.getId(), MONDAY, MONDAY.plusSeconds(86400),
+                Resolution.RAW, Set.of(Aggregate.LAST));
+
+        assertThat(series.points()).hasSize(2);
+        assertThat(series.points().get(1).height()).isEqualTo(new HealthMetricSeries.Stats(null, null, null, 1.8));
+    }
+
+    @Test
+    void patientsCannotReadOthersSeries() {
+        signIn(patient.getId() + 1, Context.PATIENT);
+        assertThatThrownBy(() -> service.getSeries(patient.getId(), Instant.EPOCH, MONDAY, Resolution.DAY, Set.of(Aggregate.AVG)))
+                .isInstanceOf(ResponseStatusException.class);
+
+        signIn(patient.getId() + 1, Context.STAFF);
+        assertThat(service.getSeries(patient.getId(), MONDAY, MONDAY.plusSeconds(86400 * 2), Resolution.DAY, Set.of(Aggregate.AVG)).points())
+                .hasSize(2);
+    }
+
+    @Test
+    void batchKeepsDeviceTimestampsAndReportsBadReadings() {
+        List<HealthMetricReading> readings = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            readings.add(new HealthMetricReading(70.0, 1.75, MONDAY.minusSeconds(60L * (i + 1))));
+        }
+        readings.set(10, new HealthMetricReading(-1.0, 1.75, null));
+        readings.set(20, new HealthMetricReading(70.0, 1.75, Instant.now().plusSeconds(86400)));
+
+        HealthMetricBatchResult result = service.addHealthMetrics(patient.getId(), readings.iterator());
+
+        assertThat(result.accepted()).isEqualTo(248);
+        assertThat(result.rejected()).extracting(HealthMetricBatchResult.Rejected::index).containsExactly(10, 20);
+        HealthMetricSeries raw = service.getSeries(patient.getId(), Instant.EPOCH, MONDAY, Resolution.RAW, Set.of(Aggregate.LAST));
+        assertThat(raw.points()).hasSize(248);
+        assertThat(raw.points().get(0).start()).isEqualTo(MONDAY.minusSeconds(60L * 250));
+        assertThat(raw.points().get(0).bmi().last()).isEqualTo(22.86);
+    }
+
+    @Test
+    void streamedBatchesAcceptNdjsonAndArrays() {
+        String body = """
+                {"weight": 80.5, "height": 1.8, "recordedAt": "2025-03-01T08:00:00Z"}
+                {"weight": 80.1, "height": 1.8, "recordedAt": "2025-03-02T08:00:00Z"}
+                """;
+        HealthMetricBatchResult result = service.addHealthMetrics(patient.getId(), new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        assertThat(result.accepted()).isEqualTo(2);
+
+        String array = "[{\"weight\": 80.5, \"height\": 1.8}, null, {\"weight\": 79.9, \"height\": 1.8}]";
+        result = service.addHealthMetrics(patient.getId(), new ByteArrayInputStream(array.getBytes(StandardCharsets.UTF_8)));
+        assertThat(result.accepted()).isEqualTo(2);
+        assertThat(result.rejected()).extracting(HealthMetricBatchResult.Rejected::index).containsExactly(1);
+
+        // the cap is enforced while parsing, before anything is buffered past it or written
+        HealthMetricService target = AopTestUtils.getTargetObject(service);
+        ReflectionTestUtils.setField(target, "maxBatchReadings", 3);
+        try {
+            String tooMany = "[" + String.join(",", Collections.nCopies(4, "{\"weight\": 80, \"height\": 1.8}")) + "]";
+            long before = metrics.count();
+            assertThatThrownBy(() -> service.addHealthMetrics(patient.getId(), new ByteArrayInputStream(tooMany.getBytes(StandardCharsets.UTF_8))))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+            assertThat(metrics.count()).isEqualTo(before);
+        } finally {
+            ReflectionTestUtils.setField(target, "maxBatchReadings", 10000);
+        }
+
+        assertThatThrownBy(() -> service.addHealthMetrics(patient.getId(), new ByteArrayInputStream("{\"weight\": }".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void seriesIsUnchangedByCompaction() {
+        HealthMetricSeries before = service.getSeries(patient.getId(), Instant.EPOCH, Instant.now(), Resolution.RAW, EnumSet.allOf(Aggregate.class));
+        // a late upload lands in the hot table for a month that is already compacted
+        assertThat(coldStore.compactMonth(patient.getId(), HealthMetricColdStore.monthStart(MONDAY))).isEqualTo(42);
+        service.addHealthMetrics(patient.getId(), List.of(new HealthMetricReading(90.0, 1.8, MONDAY.plusSeconds(3600))).iterator());
+        em.flush();
+        em.clear();
+
+        HealthMetricSeries after = service.getSeries(patient.getId(), Instant.EPOCH, Instant.now(), Resolution.RAW, EnumSet.allOf(Aggregate.class));
+        assertThat(after.points()).hasSize(43);
+        assertThat(after.points().get(1).weight().last()).isEqualTo(90.0);
+        assertThat(after.points().subList(2, 43)).isEqualTo(before.points().subList(1, 42));
+
+        assertThat(coldStore.compactMonth(patient.getId(), HealthMetricColdStore.monthStart(MONDAY))).isEqualTo(1);
+        em.flush();
+        em.clear();
+        assertThat(service.getSeries(patient.getId(), Instant.EPOCH, Instant.now(), Resolution.RAW, EnumSet.allOf(Aggregate.class)).points())
+                .isEqualTo(after.points());
+    }
+
+    @Test
+    void summaryTracksInsertsAndMatchesFullRecompute() {
+        // the readings from setUp predate summaries; the first insert builds the summary from them
+        Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        List<HealthMetricReading> recent = new ArrayList<>();
+        for (int day = 9; day >= 0; day--) {
+            recent.add(new HealthMetricReading(90.0 - day * 0.1, 1.8, today.minusSeconds(day * 86400L)));
+        }
+        service.addHealthMetrics(patient.getId(), recent.iterator());
+        service.addHealthMetricForUser(patient.getId(), new HealthMetricDto(new BigDecimal("90.0"), new BigDecimal("1.80")));
+        em.flush();
+        em.clear();
+
+        HealthMetricSummaryResponse summary = service.getSummary(patient.getId());
+        assertThat(summary.readingCount()).isEqualTo(42 + 10 + 1);
+        assertThat(summary.latestWeight()).isEqualTo(90.0);
+        assertThat(summary.minBmi30d()).isCloseTo(89.1 / (1.8 * 1.8), within(1e-9));
+        assertThat(summary.weightTrendKgPerWeek()).isCloseTo(0.7, within(0.2));
+        assertThat(summary.avgWeight30d()).isCloseTo((recent.stream().mapToDouble(HealthMetricReading::weight).sum() + 90) / 11, within(1e-9));
+
+        signIn(patient.getId() + 1, Context.STAFF);
+        assertThat(service.checkSummary(patient.getId()).consistent()).isTrue();
+
+        em.createQuery("update HealthMetricSummary s set s.readingCount = 1").executeUpdate();
+        em.clear();
+        assertThat(service.checkSummary(patient.getId()).differences()).containsExactly("readingCount");
+        assertThat(service.rebuildSummary(patient.getId()).readingCount()).isEqualTo(53);
+        em.flush();
+        em.clear();
+        assertThat(service.checkSummary(patient.getId()).consistent()).isTrue();
+    }
+
+    @Test
+    void firstSummaryReadStoresTheSummary() {
+        assertThat(em.find(HealthMetricSummary.class, patient.getId())).isNull();
+        assertThat(service.getSummary(patient.getId()).readingCount()).isEqualTo(42);
+        em.flush();
+        em.clear();
+
+        HealthMetricSummary stored = em.find(HealthMetricSummary.class, patient.getId());
+        assertThat(stored).isNotNull();
+        assertThat(stored.getReadingCount()).isEqualTo(42);
+        // later reads come from the row, not a rescan of the history
+        em.createQuery("update HealthMetricSummary s set s.readingCount = 7").executeUpdate();
+        em.clear();
+        assertThat(service.getSummary(patient.getId()).readingCount()).isEqualTo(7);
+    }
+
+    private static void signIn(Long userId, Context context) {
+        AuthenticatedUser user = new AuthenticatedUser(userId, "u@example.com", Set.of(Role.PATIENT), context, List.of());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
@@ -0,0 +1,190 @@
+package com.osu.HealthApp.service;
+
+import com.osu.HealthApp.component.FileSystemS3Client;
+import com.osu.HealthApp.component.ImageVariantGenerator;
+import com.osu.HealthApp.dtos.DirectPhotoUploadRequest;
+import com.osu.HealthApp.dtos.PhotoUploadStatus;
+import com.osu.HealthApp.dtos.PresignedPhotoUpload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Runs the upload pipeline end to end against the filesystem S3 stand-in. */
+class ProfilePhotoServiceTest {
+
+    @TempDir Path storage;
+
+    private UserService users;
+    private ThreadPoolTaskExecutor executor;
+    private ProfilePhotoService service;
+    private FileSystemS3Client s3;
+    private S3Presigner presigner;
+
+    @BeforeEach
+    void setUp() {
+        users = mock(UserService.class);
+        s3 = new FileSystemS3Client(storage, Region.US_EAST_2);
+        presigner = S3Presigner.builder().region(Region.US_EAST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("AKIDEXAMPLE", "secret")))
+                .build();
+        ImageVariantGenerator variants = new ImageVariantGenerator();
+        ReflectionTestUtils.setField(variants, "maxPixels", 50_000_000L);
+        ReflectionTestUtils.setField(variants, "jpegQuality", 0.82f);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.initialize();
+        service = new ProfilePhotoService(s3, presignerProvider(), users, variants, executor);
+        ReflectionTestUtils.setField(service, "bucketName", "photos");
+        ReflectionTestUtils.setField(service, "multipartThreshold", 1024L * 1024);
+        ReflectionTestUtils.setField(service, "partSize", 5L * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "variantSizes", new int[]{64, 256});
+        ReflectionTestUtils.setField(service, "statusTtlMinutes", 60L);
+        ReflectionTestUtils.setField(service, "directMaxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(service, "directContentTypes", List.of("image/jpeg", "image/png"));
+        ReflectionTestUtils.setField(service, "directUrlTtlSeconds", 300L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        presigner.close();
+    }
+
+    @Test
+    void smallPhotoIsUploadedAndRecorded() throws Exception {
+        byte[] bytes = randomBytes(10_000);
+        PhotoUploadStatus status = service.submit(7L, new MockMultipartFile("file", "me.png", "image/png", bytes));
+
+        PhotoUploadStatus done = awaitFinished(7L, status.uploadId());
+        assertThat(done.state()).isEqualTo(PhotoUploadStatus.State.DONE);
+        assertThat(storedObject()).hasBinaryContent(bytes);
+        verify(users).recordProfilePhoto(eq(7L), startsWith("https://photos.s3"));
+        // random bytes aren't a decodable image, so there are no variants to record
+        verify(users, never()).recordProfilePhotoVariants(anyLong(), anyString(), any());
+    }
+
+    @Test
+    void decodablePhotoGetsSquareVariants() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB), "png", png);
+        PhotoUploadStatus status = service.submit(7L, new MockMultipartFile("file", "me.png", "image/png", png.toByteArray()));
+
+        assertThat(awaitFinished(7L, status.uploadId()).state()).isEqualTo(PhotoUploadStatus.State.DONE);
+        verify(users, timeout(5000)).recordProfilePhotoVariants(eq(7L), eq(status.profilePhotoUrl()),
+                argThat((Map<Integer, String> urls) -> urls.keySet().equals(Set.of(64, 256))
+                        && urls.get(64).endsWith("-64.jpg")));
+
+        BufferedImage small;
+        try (var files = Files.walk(storage.resolve("photos/profile-photos/7"))) {
+            small = ImageIO.read(files.filter(p -> p.toString().endsWith("-64.jpg")).findFirst().orElseThrow().toFile());
+        }
+        assertThat(small.getWidth()).isEqualTo(64);
+        assertThat(small.getHeight()).isEqualTo(64);
+    }
+
+    @Test
+    void largePhotoGoesThroughMultipart() throws Exception {
+        byte[] bytes = randomBytes(12 * 1024 * 1024); // 5 MiB + 5 MiB + 2 MiB parts
+        PhotoUploadStatus status = service.submit(7L, new MockMultipartFile("file", "big photo.jpg", "image/jpeg", bytes));
+
+        assertThat(awaitFinished(7L, status.uploadId()).state()).isEqualTo(PhotoUploadStatus.State.DONE);
+        assertThat(storedObject()).hasBinaryContent(bytes);
+        assertThat(storage.resolve("photos/.multipart")).isEmptyDirectory();
+    }
+
+    @Test
+    void statusIsPrivateToTheUploader() {
+        PhotoUploadStatus status = service.submit(7L, new MockMultipartFile("file", "me.png", "image/png", randomBytes(10)));
+        assertThatThrownBy(() -> service.status(8L, status.uploadId())).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void presignedUrlPinsTypeAndLength() {
+        DirectPhotoUploadRequest request = new DirectPhotoUploadRequest();
+        request.setContentType("image/png");
+        request.setContentLength(5000L);
+
+        PresignedPhotoUpload upload = service.presignDirect(7L, request);
+        assertThat(upload.uploadUrl()).contains("/profile-photos/7/" + upload.uploadId() + "-direct", "X-Amz-Signature=");
+        assertThat(upload.headers()).containsEntry("content-type", "image/png").containsEntry("content-length", "5000");
+
+        request.setContentLength(2L * 1024 * 1024);
+        assertThatThrownBy(() -> service.presignDirect(7L, request)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void completionValidatesTheStoredObject() {
+        String uploadId = UUID.randomUUID().toString();
+        assertThatThrownBy(() -> service.completeDirect(7L, uploadId)).hasMessageContaining("not been uploaded");
+
+        String key = "profile-photos/7/" + uploadId + "-direct";
+        s3.putObject(b -> b.bucket("photos").key(key).contentType("image/gif"), RequestBody.fromBytes(randomBytes(100)));
+        assertThatThrownBy(() -> service.completeDirect(7L, uploadId)).isInstanceOf(ResponseStatusException.class);
+        assertThat(storage.resolve("photos/" + key)).doesNotExist();
+
+        s3.putObject(b -> b.bucket("photos").key(key).contentType("image/png"), RequestBody.fromBytes(randomBytes(100)));
+        assertThat(service.completeDirect(7L, uploadId).state()).isEqualTo(PhotoUploadStatus.State.DONE);
+        verify(users).recordProfilePhoto(eq(7L), endsWith(key));
+        // another user can't claim it
+        assertThatThrownBy(() -> service.completeDirect(8L, uploadId)).hasMessageContaining("not been uploaded");
+    }
+
+    @SuppressWarnings("unchecked")
+    private ObjectProvider<S3Presigner> presignerProvider() {
+        ObjectProvider<S3Presigner> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenAnswer(inv -> presigner);
+        return provider;
+    }
+
+    private PhotoUploadStatus awaitFinished(Long userId, String uploadId) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            PhotoUploadStatus s = service.status(userId, uploadId);
+            if (s.state() == PhotoUploadStatus.State.DONE || s.state() == PhotoUploadStatus.State.FAILED) return s;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("upload did not finish");
+    }
+
+    private Path storedObject() throws Exception {
+        try (var files = Files.walk(storage.resolve("photos/profile-photos/7"))) {
+            return files.filter(p -> Files.isRegularFile(p) && !p.toString().endsWith(".content-type")).findFirst().orElseThrow();
+        }
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        new Random(n).nextBytes(b);
+        return b;
+    }
+}
@@ -48,6 +48,23 @@ async function json<T>(res: Response): Promise<T> {
   return res.json();
 }
 
+// Appointment lists are paged; the cursor for the next page comes back in X-Next-Cursor.
+const APPOINTMENT_PAGE_SIZE = 500;
+
+async function getAllAppointmentPages(path: string): Promise<AppointmentResponse[]> {
+  const all: AppointmentResponse[] = [];
+  let cursor: string | null = null;
+  do {
+    const url = new URL(`${API_BASE}${path}`);
+    url.searchParams.set('limit', String(APPOINTMENT_PAGE_SIZE));
+    if (cursor) url.searchParams.set('cursor', cursor);
+    const res = await fetch(url.toString(), { credentials: 'include' });
+    all.push(...(await json<AppointmentResponse[]>(res)));
+    cursor = res.headers.get('X-Next-Cursor');
+  } while (cursor);
+  return all;
+}
+
 export async function getMe(): Promise<MeResponse> {
   const res = await fetch(`${API_BASE}/api/me`, { credentials: 'include' });
   return json<MeResponse>(res);
@@ -72,10 +89,7 @@ export async function getDoctorAvailability(
 
 // BACKEND: GET /api/appointments/patient/{id}
 export async function getAppointmentsForPatient(patientId: number): Promise<AppointmentResponse[]> {
-  const res = await fetch(`${API_BASE}/api/appointments/patient/${patientId}`, {
-    credentials: 'include',
-  });
-  return json<AppointmentResponse[]>(res);
+  return getAllAppointmentPages(`/api/appointments/patient/${patientId}`);
 }
 
 // BACKEND: POST /api/appointments
@@ -109,10 +123,7 @@ export async function apiLogout(): Promise<void> {
 
 // get appointments for a specific doctor
 export async function getAppointmentsForDoctor(doctorId: number): Promise<AppointmentResponse[]> {
-  const res = await fetch(`${API_BASE}/api/appointments/doctor/${doctorId}`, {
-    credentials: 'include',
-  });
-  return json<AppointmentResponse[]>(res);
+  return getAllAppointmentPages(`/api/appointments/doctor/${doctorId}`);
 }
 
 // get unique patients from those appointments